@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a fresh in-memory H2 database with the application schema and synthetic
+ * data. Ids are dense and start at 1, as generated by the identity columns.
+ */
+final class BenchmarkData {
+    static final int BATCH_SIZE = 1000;
+
+    private BenchmarkData() {
+    }
+
+    static EmbeddedDatabase newDatabase() {
+        return new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:migrate.sql")
+                .addScript("classpath:data.sql")
+                .build();
+    }
+
+    static DictionaryCache dictionary(JdbcTemplate jdbc) {
+        DictionaryCache dictionary = new DictionaryCache(new MpaDbStorage(jdbc), new GenreDbStorage(jdbc));
+        dictionary.invalidate();
+        return dictionary;
+    }
+
+    static void seedUsers(JdbcTemplate jdbc, int count) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[]{"user" + i + "@mail.ru", "user" + i, "User " + i, Date.valueOf(LocalDate.of(1990, 1, 1))});
+            if (rows.size() == BATCH_SIZE || i == count) {
+                jdbc.batchUpdate("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    static void seedFilms(JdbcTemplate jdbc, int count) {
+        List<Object[]> films = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> genres = new ArrayList<>(BATCH_SIZE * 2);
+        for (int i = 1; i <= count; i++) {
+            films.add(new Object[]{"Film " + i, "Description of film " + i, Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(i % 7000)), 90 + i % 60, 1 + i % 5});
+            genres.add(new Object[]{i, 1 + i % 6});
+            genres.add(new Object[]{i, 1 + (i + 3) % 6});
+            if (films.size() == BATCH_SIZE || i == count) {
+                jdbc.batchUpdate("INSERT INTO films (name, description, release_date, duration, mpa) VALUES (?, ?, ?, ?, ?)", films);
+                jdbc.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genres);
+                films.clear();
+                genres.clear();
+            }
+        }
+    }
+
+    /**
+     * Gives every user {@code likesPerUser} distinct likes, skewed towards low film
+     * ids so that popularity follows a long-tail distribution.
+     */
+    static void seedLikes(JdbcTemplate jdbc, int users, int films, int likesPerUser, long seed) {
+        Random random = new Random(seed);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int perUser = Math.min(likesPerUser, films);
+        for (int user = 1; user <= users; user++) {
+            BitSet liked = new BitSet(films + 1);
+            while (liked.cardinality() < perUser) {
+                double r = random.nextDouble();
+                liked.set(1 + (int) (r * r * films));
+            }
+            for (int film = liked.nextSetBit(0); film >= 0; film = liked.nextSetBit(film + 1)) {
+                rows.add(new Object[]{film, user});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbc.batchUpdate("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", rows);
+        }
+        jdbc.update("UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)");
+    }
+
+    /**
+     * Makes user 1 a hub with {@code hubFriends} friends and gives every user
+     * {@code friendsPerUser} random friends.
+     */
+    static void seedFriendships(JdbcTemplate jdbc, int users, int hubFriends, int friendsPerUser, long seed) {
+        Random random = new Random(seed);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int user = 1; user <= users; user++) {
+            BitSet friends = new BitSet(users + 1);
+            int wanted = Math.min(user == 1 ? hubFriends : friendsPerUser, users - 1);
+            while (friends.cardinality() < wanted) {
+                int friend = 1 + random.nextInt(users);
+                if (friend != user) {
+                    friends.set(friend);
+                }
+            }
+            for (int friend = friends.nextSetBit(0); friend >= 0; friend = friends.nextSetBit(friend + 1)) {
+                rows.add(new Object[]{user, friend});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbc.batchUpdate("INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)", rows);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCountCallbackHandler;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second through {@link FilmRowMapper}. {@code readRows} walks the same
+ * result set without mapping it, so the difference between the two is the mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmRowMapperBenchmark {
+    private static final String SQL = """
+            SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa
+              FROM films f
+            """;
+
+    @Param({"1000"})
+    public int films;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private FilmRowMapper rowMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkData.newDatabase();
+        jdbc = new JdbcTemplate(database);
+        BenchmarkData.seedFilms(jdbc, films);
+        rowMapper = new FilmRowMapper(BenchmarkData.dictionary(jdbc));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public List<Film> mapRows() {
+        return jdbc.query(SQL, rowMapper);
+    }
+
+    @Benchmark
+    public int readRows() {
+        RowCountCallbackHandler counter = new RowCountCallbackHandler();
+        jdbc.query(SQL, counter);
+        return counter.getRowCount();
+    }
+}
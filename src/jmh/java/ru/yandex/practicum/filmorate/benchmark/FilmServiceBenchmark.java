@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.cache.FilmJsonCache;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingCounters;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the FilmService hot paths. Running with logLevel=DEBUG shows what
+ * the per-call service logging costs compared to the INFO default; backend=inmemory
+ * copies the seeded data into the inmemory profile storages to measure without JDBC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmServiceBenchmark {
+    @Param({"INFO", "DEBUG"})
+    public String logLevel;
+
+    @Param({"10000"})
+    public int films;
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    @Param({"jdbc", "inmemory"})
+    public String backend;
+
+    private EmbeddedDatabase database;
+    private FilmService filmService;
+    private LikeWriteBehind likeWriteBehind;
+    private int users;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        ((Logger) LoggerFactory.getLogger("ru.yandex.practicum.filmorate")).setLevel(Level.toLevel(logLevel));
+        database = BenchmarkData.newDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        users = Math.max(100, films / 10);
+        BenchmarkData.seedUsers(jdbc, users);
+        BenchmarkData.seedFilms(jdbc, films);
+        BenchmarkData.seedLikes(jdbc, users, films, 20, 42);
+        DictionaryCache dictionary = BenchmarkData.dictionary(jdbc);
+        FilmStorage filmStorage = new FilmDbStorage(jdbc, dictionary, 500);
+        UserStorage userStorage = new UserDbStorage(jdbc, 500);
+        LikeStorage likeStorage = new LikeDbStorage(jdbc, dictionary);
+        if ("inmemory".equals(backend)) {
+            InMemoryFilmStorage memoryFilms = new InMemoryFilmStorage(dictionary);
+            InMemoryUserStorage memoryUsers = new InMemoryUserStorage();
+            InMemoryLikeStorage memoryLikes = new InMemoryLikeStorage(memoryFilms);
+            filmStorage.streamFilms(memoryFilms::create);
+            userStorage.streamUsers(memoryUsers::create);
+            likeStorage.forEachLike(memoryLikes::addLike);
+            filmStorage = memoryFilms;
+            userStorage = memoryUsers;
+            likeStorage = memoryLikes;
+        }
+        CatalogVersions versions = new CatalogVersions(dictionary);
+        FilmLeaderboard leaderboard = new FilmLeaderboard(likeStorage, filmStorage, versions);
+        leaderboard.load();
+        LikeMatrix likeMatrix = new LikeMatrix(likeStorage, 20, 1000);
+        likeMatrix.load();
+        likeWriteBehind = new LikeWriteBehind(likeStorage, writeBehind, 500);
+        FilmSearchIndex searchIndex = new FilmSearchIndex(filmStorage, leaderboard);
+        searchIndex.load();
+        TrendingCounters trending = new TrendingCounters(likeStorage);
+        trending.load();
+        filmService = new FilmService(filmStorage, userStorage, likeStorage, dictionary, leaderboard, likeMatrix, versions,
+                new FilmJsonCache(JsonMapper.builder().findAndAddModules().build(), dictionary, new SimpleMeterRegistry(), 64L << 20), likeWriteBehind, searchIndex, trending);
+    }
+
+    @TearDown
+    public void tearDown() {
+        likeWriteBehind.drain();
+        database.shutdown();
+    }
+
+    @Benchmark
+    public Film getFilm() {
+        return filmService.getFilmOrThrow(1 + ThreadLocalRandom.current().nextInt(films));
+    }
+
+    @Benchmark
+    public byte[] getFilmJson() {
+        return filmService.getFilmJson(1 + ThreadLocalRandom.current().nextInt(films));
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmService.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsByGenreAndYear() {
+        return filmService.getPopularFilms(10, 1 + ThreadLocalRandom.current().nextInt(6), 2000 + ThreadLocalRandom.current().nextInt(19));
+    }
+
+    @Benchmark
+    public List<Film> searchFilms() {
+        return filmService.searchFilms("film " + (1 + ThreadLocalRandom.current().nextInt(films)), "title,description", 10);
+    }
+
+    @Benchmark
+    public void likeAndUnlike() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long filmId = 1 + random.nextInt(films);
+        long userId = 1 + random.nextInt(users);
+        filmService.addLike(filmId, userId);
+        filmService.removeLike(filmId, userId);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmStorageBenchmark {
+    @Param({"1000", "10000"})
+    public int films;
+
+    private EmbeddedDatabase database;
+    private FilmDbStorage filmStorage;
+    private LikeDbStorage likeStorage;
+    private DictionaryCache dictionary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkData.newDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        int users = Math.max(100, films / 10);
+        BenchmarkData.seedUsers(jdbc, users);
+        BenchmarkData.seedFilms(jdbc, films);
+        BenchmarkData.seedLikes(jdbc, users, films, 20, 42);
+        dictionary = BenchmarkData.dictionary(jdbc);
+        filmStorage = new FilmDbStorage(jdbc, dictionary, 500);
+        likeStorage = new LikeDbStorage(jdbc, dictionary);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public List<Film> getFilms() {
+        return filmStorage.getFilms();
+    }
+
+    @Benchmark
+    public Optional<Film> findById() {
+        return filmStorage.findById(randomId());
+    }
+
+    @Benchmark
+    public Film create() {
+        return filmStorage.create(newFilm("New film"));
+    }
+
+    @Benchmark
+    public Film update() {
+        Film film = newFilm("Updated film");
+        film.setId(randomId());
+        return filmStorage.update(film);
+    }
+
+    @Benchmark
+    public List<Film> getTopLikedFilms() {
+        return likeStorage.getTopLikedFilms(10);
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(films);
+    }
+
+    private Film newFilm(String name) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Benchmark film");
+        film.setReleaseDate(LocalDate.of(2010, 1, 1));
+        film.setDuration(100);
+        film.setMpa(dictionary.findMpa(1 + random.nextInt(5)).orElseThrow());
+        LinkedHashSet<Genre> genres = new LinkedHashSet<>();
+        genres.add(dictionary.findGenre(1 + random.nextInt(6)).orElseThrow());
+        film.setGenres(genres);
+        return film;
+    }
+}
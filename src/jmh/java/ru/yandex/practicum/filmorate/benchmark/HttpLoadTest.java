@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load generator for comparing platform and virtual thread mode.
+ * Each client is a virtual thread that alternates GET /films/popular and
+ * GET /users/{id}/friends against an already running application and records the
+ * latency of every request.
+ * <p>
+ * Arguments: baseUrl clients seconds users, e.g.
+ * {@code mvn -P benchmark test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.yandex.practicum.filmorate.benchmark.HttpLoadTest
+ * -Dexec.args="http://localhost:8080 2000 60 1000"}
+ */
+public final class HttpLoadTest {
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        LatencyHistogram latencies = new LatencyHistogram();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> run(client, baseUrl, users, deadline, latencies, errors));
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long requests = latencies.count();
+        System.out.printf("clients=%d duration=%.1fs requests=%d errors=%d throughput=%.1f req/s%n",
+                clients, elapsed, requests, errors.get(), requests / elapsed);
+        if (requests > 0) {
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    latencies.percentile(0.50), latencies.percentile(0.90), latencies.percentile(0.99),
+                    latencies.percentile(0.999), latencies.max());
+        }
+    }
+
+    private static void run(HttpClient client, String baseUrl, int users, long deadline, LatencyHistogram latencies, AtomicLong errors) {
+        long sent = 0;
+        while (System.nanoTime() < deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String path = (sent++ & 1) == 0 ? "/films/popular?count=10" : "/users/" + (1 + random.nextInt(users)) + "/friends";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 500) {
+                    errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Log-linear histogram of microsecond latencies shared by all clients: 32 linear
+     * sub-buckets per power of two (about 3% relative error) in a fixed ~15 KB array,
+     * so memory does not depend on the number of clients or requests.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 6;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int HALF = SUB / 2;
+
+        private final AtomicLongArray counts = new AtomicLongArray(SUB + (64 - SUB_BITS) * HALF);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts.incrementAndGet(index(micros));
+            total.increment();
+            maxMicros.accumulate(micros);
+        }
+
+        long count() {
+            return total.sum();
+        }
+
+        double max() {
+            return maxMicros.get() / 1e3;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, in milliseconds.
+         */
+        double percentile(double quantile) {
+            long rank = Math.max(1, (long) Math.ceil(quantile * count()));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxMicros.get()) / 1e3;
+                }
+            }
+            return max();
+        }
+
+        private static int index(long micros) {
+            if (micros < SUB) {
+                return (int) micros;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS + 1;
+            return SUB + (shift - 1) * HALF + (int) (micros >>> shift) - HALF;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB) {
+                return index;
+            }
+            int shift = (index - SUB) / HALF + 1;
+            long sub = (index - SUB) % HALF + HALF;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+}
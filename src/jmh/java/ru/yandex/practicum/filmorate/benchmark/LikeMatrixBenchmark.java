@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of {@link LikeMatrix#recommend(long, int)} over users x
+ * likesPerUser likes (1M by default); sample mode reports p99 directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LikeMatrixBenchmark {
+    @Param({"10000"})
+    public int users;
+
+    @Param({"20000"})
+    public int films;
+
+    @Param({"100"})
+    public int likesPerUser;
+
+    private EmbeddedDatabase database;
+    private LikeMatrix likeMatrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkData.newDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        BenchmarkData.seedUsers(jdbc, users);
+        BenchmarkData.seedFilms(jdbc, films);
+        BenchmarkData.seedLikes(jdbc, users, films, likesPerUser, 42);
+        likeMatrix = new LikeMatrix(new LikeDbStorage(jdbc, BenchmarkData.dictionary(jdbc)), 20, 1000);
+        likeMatrix.load();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public int[] recommend() {
+        return likeMatrix.recommend(1 + ThreadLocalRandom.current().nextInt(users), 10);
+    }
+}
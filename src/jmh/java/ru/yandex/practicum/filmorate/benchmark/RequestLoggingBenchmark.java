@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.core.DefaultHttpLogWriter;
+import org.zalando.logbook.core.DefaultSink;
+import org.zalando.logbook.json.JsonHttpLogFormatter;
+import org.zalando.logbook.servlet.LogbookFilter;
+import ru.yandex.practicum.filmorate.config.SampledBodyStrategy;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one request through the Logbook servlet filter with the logger at
+ * TRACE, as configured in production: JSON format, bodies sampled by
+ * {@link SampledBodyStrategy}. sampleRate=1.0 buffers and prints every body, 0.01 is
+ * the default; appender=sync formats on the request thread, async goes through an
+ * AsyncAppender like logback-spring.xml. Output is discarded, so the numbers show
+ * the cost on the request thread, not console I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RequestLoggingBenchmark {
+    private static final String LOGBOOK_LOGGER = "org.zalando.logbook.Logbook";
+
+    @Param({"1.0", "0.01"})
+    public double sampleRate;
+
+    @Param({"sync", "async"})
+    public String appender;
+
+    private final byte[] requestBody = ("{\"name\":\"Film\",\"description\":\"" + "a".repeat(180) + "\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":120,\"mpa\":{\"id\":1},\"genres\":[{\"id\":1},{\"id\":2}]}")
+            .getBytes(StandardCharsets.UTF_8);
+    private final byte[] responseBody = ("{\"id\":1,\"name\":\"Film\",\"description\":\"" + "a".repeat(180) + "\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":120,\"mpa\":{\"id\":1,\"name\":\"G\"},"
+            + "\"genres\":[{\"id\":1,\"name\":\"Комедия\"},{\"id\":2,\"name\":\"Драма\"}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private LogbookFilter filter;
+    private FilterChain chain;
+    private Appender<ILoggingEvent> logAppender;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5level [%thread] %logger : %msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+        logAppender = output;
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(output);
+            async.start();
+            logAppender = async;
+        }
+        Logger logger = context.getLogger(LOGBOOK_LOGGER);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(Level.TRACE);
+        logger.addAppender(logAppender);
+
+        Logbook logbook = Logbook.builder()
+                .strategy(new SampledBodyStrategy(sampleRate))
+                .sink(new DefaultSink(new JsonHttpLogFormatter(), new DefaultHttpLogWriter()))
+                .build();
+        filter = new LogbookFilter(logbook);
+        chain = (request, response) -> {
+            request.getInputStream().readAllBytes();
+            response.setContentType("application/json");
+            response.getOutputStream().write(responseBody);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        Logger logger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(LOGBOOK_LOGGER);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(true);
+        logger.setLevel(null);
+    }
+
+    @Benchmark
+    public int exchange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/films");
+        request.setContentType("application/json");
+        request.setContent(requestBody);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response.getContentAsByteArray().length;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Friend queries through {@link UserService}, with the in-memory friend graph
+ * switched on and off. User 1 is a hub with {@code hubFriends} friends, which is
+ * the worst case for friend suggestions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    @Param({"20000"})
+    public int users;
+
+    @Param({"10000"})
+    public int hubFriends;
+
+    @Param({"50"})
+    public int friendsPerUser;
+
+    @Param({"true", "false"})
+    public boolean graph;
+
+    private EmbeddedDatabase database;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkData.newDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        BenchmarkData.seedUsers(jdbc, users);
+        BenchmarkData.seedFriendships(jdbc, users, hubFriends, friendsPerUser, 42);
+        FriendshipDbStorage friendshipStorage = new FriendshipDbStorage(jdbc);
+        FriendGraph friendGraph = new FriendGraph(friendshipStorage, graph, 500);
+        friendGraph.load();
+        LikeMatrix likeMatrix = new LikeMatrix(new LikeDbStorage(jdbc, BenchmarkData.dictionary(jdbc)), 20, 1000);
+        userService = new UserService(new UserDbStorage(jdbc, 500), friendshipStorage, friendGraph, likeMatrix);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return userService.getCommonFriends(randomUser(), randomUser());
+    }
+
+    @Benchmark
+    public List<User> getFriendSuggestions() {
+        return userService.getFriendSuggestions(randomUser(), 10);
+    }
+
+    @Benchmark
+    public List<User> getHubFriendSuggestions() {
+        return userService.getFriendSuggestions(1, 10);
+    }
+
+    private long randomUser() {
+        return 2 + ThreadLocalRandom.current().nextInt(users - 1);
+    }
+}
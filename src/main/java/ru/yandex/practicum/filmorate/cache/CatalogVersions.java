@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counters for the catalog, used as strong ETags. Films are bumped by every
+ * film write and likes by every like change in {@code FilmService}; dictionaries
+ * follow {@link DictionaryCache#version()}. The startup epoch keeps tags from a
+ * previous run from matching after a restart resets the counters.
+ */
+@Component
+public class CatalogVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong films = new AtomicLong();
+    private final AtomicLong likes = new AtomicLong();
+    private final DictionaryCache dictionary;
+
+    public CatalogVersions(DictionaryCache dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public void filmsChanged() {
+        films.incrementAndGet();
+    }
+
+    public void likesChanged() {
+        likes.incrementAndGet();
+    }
+
+    public String filmsEtag() {
+        return etag("f" + films.get() + "-d" + dictionary.version());
+    }
+
+    public String popularEtag() {
+        return etag("f" + films.get() + "-l" + likes.get() + "-d" + dictionary.version());
+    }
+
+    public String dictionaryEtag() {
+        return etag("d" + dictionary.version());
+    }
+
+    private String etag(String version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
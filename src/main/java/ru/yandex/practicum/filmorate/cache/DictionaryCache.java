@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable in-memory snapshot of the MPA and genre dictionaries, indexed by id.
+ * The tables only change when data.sql is reloaded, so lookups never touch the
+ * database; call {@link #invalidate()} after changing them to load a new snapshot.
+ * Returned objects are shared between callers and must not be modified.
+ * {@link #version()} changes with every snapshot.
+ */
+@Slf4j
+@Component
+public class DictionaryCache {
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(new MpaRating[0], List.of(), new Genre[0], List.of());
+
+    public DictionaryCache(MpaStorage mpaStorage, GenreStorage genreStorage) {
+        this.mpaStorage = mpaStorage;
+        this.genreStorage = genreStorage;
+    }
+
+    @PostConstruct
+    public void invalidate() {
+        List<MpaRating> mpa = List.copyOf(mpaStorage.getAll());
+        List<Genre> genres = List.copyOf(genreStorage.getAll());
+        MpaRating[] mpaById = new MpaRating[mpa.stream().mapToInt(MpaRating::getId).max().orElse(-1) + 1];
+        mpa.forEach(m -> mpaById[m.getId()] = m);
+        Genre[] genreById = new Genre[genres.stream().mapToInt(Genre::getId).max().orElse(-1) + 1];
+        genres.forEach(g -> genreById[g.getId()] = g);
+        snapshot = new Snapshot(mpaById, mpa, genreById, genres);
+        version.incrementAndGet();
+        log.info("Dictionaries loaded: {} MPA ratings, {} genres", mpa.size(), genres.size());
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public List<MpaRating> getAllMpa() {
+        return snapshot.mpa();
+    }
+
+    public Optional<MpaRating> findMpa(int id) {
+        MpaRating[] byId = snapshot.mpaById();
+        return id >= 0 && id < byId.length ? Optional.ofNullable(byId[id]) : Optional.empty();
+    }
+
+    public List<Genre> getAllGenres() {
+        return snapshot.genres();
+    }
+
+    public Optional<Genre> findGenre(int id) {
+        Genre[] byId = snapshot.genreById();
+        return id >= 0 && id < byId.length ? Optional.ofNullable(byId[id]) : Optional.empty();
+    }
+
+    private record Snapshot(MpaRating[] mpaById, List<MpaRating> mpa, Genre[] genreById, List<Genre> genres) {
+    }
+}
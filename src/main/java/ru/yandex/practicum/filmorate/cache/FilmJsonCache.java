@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.UncheckedIOException;
+import java.util.function.LongFunction;
+
+/**
+ * Serialized JSON of single films, keyed by id and bounded by total size in bytes
+ * (W-TinyLFU eviction). {@code FilmService} invalidates an entry whenever the film
+ * or its genres are written; a new dictionary snapshot drops everything because
+ * genre and MPA names are embedded in the JSON. Statistics are published as the
+ * "films.json" cache metrics.
+ */
+@Component
+public class FilmJsonCache {
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final Cache<Long, byte[]> cache;
+    private final ObjectWriter writer;
+    private final DictionaryCache dictionary;
+    private volatile long dictionaryVersion;
+
+    public FilmJsonCache(ObjectMapper objectMapper, DictionaryCache dictionary, MeterRegistry registry,
+                         @Value("${filmorate.cache.film-json.max-bytes:67108864}") long maxBytes) {
+        this.writer = objectMapper.writerFor(Film.class);
+        this.dictionary = dictionary;
+        this.dictionaryVersion = dictionary.version();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, byte[] json) -> json.length + ENTRY_OVERHEAD)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "films.json");
+    }
+
+    /**
+     * Cached JSON of the film, loading and serializing it on a miss. Exceptions from
+     * the loader, such as a missing film, are passed through and nothing is cached.
+     */
+    public byte[] get(long id, LongFunction<Film> loader) {
+        long version = dictionary.version();
+        if (version != dictionaryVersion) {
+            dictionaryVersion = version;
+            cache.invalidateAll();
+        }
+        return cache.get(id, key -> serialize(loader.apply(key)));
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private byte[] serialize(Film film) {
+        try {
+            return writer.writeValueAsBytes(film);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.Strategy;
+
+/**
+ * HTTP exchange logging. Logbook writes at TRACE, so it costs nothing until
+ * logging.level.org.zalando.logbook.Logbook=TRACE is set; bodies are then logged
+ * for filmorate.logging.body-sample-rate of the requests.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoggingConfig {
+
+    @Bean
+    public Strategy logbookStrategy(@Value("${filmorate.logging.body-sample-rate:0.01}") double sampleRate) {
+        return new SampledBodyStrategy(sampleRate);
+    }
+}
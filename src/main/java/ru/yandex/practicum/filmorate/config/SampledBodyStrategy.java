@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logbook strategy that logs every exchange but buffers and prints bodies only for
+ * a random fraction of them. The decision is made when the request arrives and
+ * reused for its response, which the servlet filter processes on the same thread.
+ */
+public class SampledBodyStrategy implements Strategy {
+    private static final ThreadLocal<Boolean> SAMPLED = new ThreadLocal<>();
+
+    private final double sampleRate;
+
+    public SampledBodyStrategy(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        boolean sampled = sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        SAMPLED.set(sampled);
+        return sampled ? request.withBody() : request.withoutBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        boolean sampled = Boolean.TRUE.equals(SAMPLED.get());
+        SAMPLED.remove();
+        return sampled ? response.withBody() : response.withoutBody();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Active with spring.threads.virtual.enabled=true. Boot then runs Tomcat requests,
+ * scheduled jobs and async tasks on virtual threads; this configuration puts the
+ * DataSource behind {@link ConnectionLimitingDataSource} so the number of threads
+ * using JDBC at once never exceeds filmorate.datasource.max-concurrency. Free
+ * permits and waiting threads are exported next to the Hikari pool metrics.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        int permits = environment.getProperty("filmorate.datasource.max-concurrency", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long acquireTimeoutMs = environment.getProperty("filmorate.datasource.acquire-timeout-ms", Long.class, 30000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionLimitingDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("filmorate.datasource.permits.available", limited, ConnectionLimitingDataSource::availablePermits)
+                        .description("JDBC permits not taken by a thread")
+                        .register(registry);
+                Gauge.builder("filmorate.datasource.permits.waiting", limited, ConnectionLimitingDataSource::queueLength)
+                        .description("Threads waiting for a JDBC permit")
+                        .register(registry);
+            }
+        };
+    }
+}
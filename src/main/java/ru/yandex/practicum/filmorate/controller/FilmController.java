@@ -1,13 +1,21 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -16,25 +24,65 @@ import java.util.List;
 @Validated
 public class FilmController {
     private final FilmService filmService;
-    private static final LocalDate MIN_DATE = LocalDate.of(1895, 12, 28);
+    private final FilmImportService filmImportService;
+    private final JsonArrayStreamer jsonArrayStreamer;
+    private final CatalogVersions versions;
 
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, FilmImportService filmImportService, JsonArrayStreamer jsonArrayStreamer, CatalogVersions versions) {
         this.filmService = filmService;
+        this.filmImportService = filmImportService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
+        this.versions = versions;
     }
 
     @GetMapping("/{id}")
-    public Film getFilm(@PathVariable long id) {
-        return filmService.getFilmOrThrow(id);
+    public ResponseEntity<byte[]> getFilm(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(versions.filmsEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(filmService.getFilmJson(id));
     }
 
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                      @RequestParam(required = false) Integer genreId,
+                                      @RequestParam(required = false) Integer year,
+                                      WebRequest request) {
+        if (request.checkNotModified(versions.popularEtag())) {
+            return null;
+        }
+        return filmService.getPopularFilms(count, genreId, year);
+    }
+
+    @GetMapping("/trending")
+    public List<Film> getTrendingFilms(@RequestParam(defaultValue = "24h") String window,
+                                       @RequestParam(defaultValue = "count") String scoring,
+                                       @RequestParam(defaultValue = "10") int count) {
+        return filmService.getTrendingFilms(window, scoring, count);
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam String query,
+                                  @RequestParam(defaultValue = "title,description") String by,
+                                  @RequestParam(defaultValue = "10") int count,
+                                  WebRequest request) {
+        if (request.checkNotModified(versions.popularEtag())) {
+            return null;
+        }
+        return filmService.searchFilms(query, by, count);
+    }
+
+    @GetMapping(params = "limit")
+    public List<Film> getFilmsPage(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        return filmService.getFilmsPage(afterId, limit);
     }
 
     @GetMapping
-    public List<Film> getFilms() {
-        return filmService.getFilms();
+    public void getFilms(@RequestParam(required = false) Long afterId, HttpServletResponse response) throws IOException {
+        if (afterId != null) {
+            throw new ValidationException("limit is required together with afterId.");
+        }
+        jsonArrayStreamer.write(response, Film.class, filmService::streamFilms);
     }
 
     @PostMapping
@@ -43,6 +91,12 @@ public class FilmController {
         return filmService.create(film);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, FilmImportService.NDJSON_VALUE})
+    public void importFilms(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        filmImportService.importFilms(request.getInputStream(), response.getOutputStream());
+    }
+
     @PutMapping
     public Film update(@Valid @RequestBody Film film) {
         checkReleaseDate(film.getReleaseDate());
@@ -50,7 +104,7 @@ public class FilmController {
     }
 
     private void checkReleaseDate(LocalDate date) {
-        if (date.isBefore(MIN_DATE)) {
+        if (date.isBefore(FilmService.MIN_RELEASE_DATE)) {
             throw new ValidationException("Дата релиза должна быть не раньше 28.12.1895");
         }
     }
@@ -4,28 +4,38 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/genres")
 public class GenreController {
-    private final GenreStorage genreStorage;
+    private final DictionaryCache dictionary;
+    private final CatalogVersions versions;
 
-    public GenreController(GenreStorage genreStorage) {
-        this.genreStorage = genreStorage;
+    public GenreController(DictionaryCache dictionary, CatalogVersions versions) {
+        this.dictionary = dictionary;
+        this.versions = versions;
     }
 
     @GetMapping
-    public List<Genre> getAll() {
-        return genreStorage.getAll();
+    public List<Genre> getAll(WebRequest request) {
+        if (request.checkNotModified(versions.dictionaryEtag())) {
+            return null;
+        }
+        return dictionary.getAllGenres();
     }
 
     @GetMapping("/{id}")
-    public Genre getById(@PathVariable int id) {
-        return genreStorage.findById(id).orElseThrow(() -> new NotFoundException("Жанр с id=" + id + " не найден"));
+    public Genre getById(@PathVariable int id, WebRequest request) {
+        if (request.checkNotModified(versions.dictionaryEtag())) {
+            return null;
+        }
+        return dictionary.findGenre(id).orElseThrow(() -> new NotFoundException("Жанр с id=" + id + " не найден"));
     }
 }
@@ -5,9 +5,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.MpaRating;
-import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 
 import java.util.List;
 
@@ -15,15 +17,23 @@ import java.util.List;
 @RequestMapping("/mpa")
 public class MpaController {
     @Autowired
-    private MpaStorage mpaStorage;
+    private DictionaryCache dictionary;
+    @Autowired
+    private CatalogVersions versions;
 
     @GetMapping
-    public List<MpaRating> getAll() {
-        return mpaStorage.getAll();
+    public List<MpaRating> getAll(WebRequest request) {
+        if (request.checkNotModified(versions.dictionaryEtag())) {
+            return null;
+        }
+        return dictionary.getAllMpa();
     }
 
     @GetMapping("/{id}")
-    public MpaRating getById(@PathVariable int id) {
-        return mpaStorage.findById(id).orElseThrow(() -> new NotFoundException("MPA с id=" + id + " не найден"));
+    public MpaRating getById(@PathVariable int id, WebRequest request) {
+        if (request.checkNotModified(versions.dictionaryEtag())) {
+            return null;
+        }
+        return dictionary.findMpa(id).orElseThrow(() -> new NotFoundException("MPA с id=" + id + " не найден"));
     }
 }
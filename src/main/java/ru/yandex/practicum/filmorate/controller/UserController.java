@@ -1,12 +1,17 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -14,14 +19,26 @@ import java.util.List;
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, FilmService filmService, JsonArrayStreamer jsonArrayStreamer) {
         this.userService = userService;
+        this.filmService = filmService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
+    }
+
+    @GetMapping(params = "limit")
+    public List<User> getUsersPage(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        return userService.getUsersPage(afterId, limit);
     }
 
     @GetMapping
-    public List<User> getUsers() {
-        return userService.getUsers();
+    public void getUsers(@RequestParam(required = false) Long afterId, HttpServletResponse response) throws IOException {
+        if (afterId != null) {
+            throw new ValidationException("limit is required together with afterId.");
+        }
+        jsonArrayStreamer.write(response, User.class, userService::streamUsers);
     }
 
     @GetMapping("/{id}")
@@ -39,6 +56,16 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable long id, @RequestParam(defaultValue = "10") int limit) {
+        return userService.getFriendSuggestions(id, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable long id, @RequestParam(defaultValue = "10") int limit) {
+        return filmService.getRecommendations(id, limit);
+    }
+
     @PostMapping
     public User create(@RequestBody User user) {
         return userService.create(user);
@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory ranking of films by like count (like_count DESC, id ASC), the same
+ * ordering as {@link LikeStorage#getTopLikedFilms(int)}. Besides the global ranking
+ * every film is also ranked per release year, per genre and per (genre, year), so
+ * a filtered top-N walks one ranking instead of grouping the likes table.
+ * Seeded once from storage and kept up to date by {@code FilmService}, so every
+ * update is O(k log n) for a film in k rankings and a top-N read is O(N + log n).
+ */
+@Slf4j
+@Component
+public class FilmLeaderboard {
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+    private static final int[] NO_GENRES = new int[0];
+
+    private final LikeStorage likeStorage;
+    private final FilmStorage filmStorage;
+    private final CatalogVersions versions;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, TreeSet<Entry>> rankings = new HashMap<>();
+
+    public FilmLeaderboard(LikeStorage likeStorage, FilmStorage filmStorage, CatalogVersions versions) {
+        this.likeStorage = likeStorage;
+        this.filmStorage = filmStorage;
+        this.versions = versions;
+    }
+
+    @PostConstruct
+    public void load() {
+        Map<Long, Integer> counts = likeStorage.getLikeCounts();
+        List<Entry> loaded = new ArrayList<>(counts.size());
+        filmStorage.streamFilms(film -> loaded.add(entry(film, counts.getOrDefault(film.getId(), 0))));
+        synchronized (this) {
+            entries.clear();
+            rankings.clear();
+            loaded.forEach(this::put);
+        }
+        log.info("Film leaderboard loaded: {} films in {} rankings", loaded.size(), rankings.size());
+    }
+
+    public synchronized void addFilm(Film film) {
+        if (!entries.containsKey(film.getId())) {
+            put(entry(film, 0));
+        }
+    }
+
+    /**
+     * Moves the film to the rankings of its current release year and genres.
+     */
+    public synchronized void updateFilm(Film film) {
+        Entry entry = entries.get(film.getId());
+        if (entry != null) {
+            remove(entry);
+        }
+        put(entry(film, entry == null ? 0 : entry.likes()));
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        Entry entry = entries.get(filmId);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    public synchronized void increment(long filmId) {
+        adjust(filmId, 1);
+    }
+
+    public synchronized void decrement(long filmId) {
+        adjust(filmId, -1);
+    }
+
+    public synchronized int likesOf(long filmId) {
+        Entry entry = entries.get(filmId);
+        return entry == null ? 0 : entry.likes();
+    }
+
+    /**
+     * Like counts of the given films in one locked pass; unknown films count zero.
+     */
+    public synchronized Map<Long, Integer> likesOf(Collection<Long> filmIds) {
+        Map<Long, Integer> likes = new HashMap<>(filmIds.size() * 2);
+        for (Long filmId : filmIds) {
+            Entry entry = entries.get(filmId);
+            likes.put(filmId, entry == null ? 0 : entry.likes());
+        }
+        return likes;
+    }
+
+    public List<Long> top(int count) {
+        return top(count, null, null);
+    }
+
+    /**
+     * Top films of the given genre and/or release year; null means no filter.
+     */
+    public synchronized List<Long> top(int count, Integer genreId, Integer year) {
+        TreeSet<Entry> ranking = rankings.get(key(genreId == null ? 0 : genreId, year == null ? 0 : year));
+        if (ranking == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(count, ranking.size())));
+        Iterator<Entry> it = ranking.iterator();
+        while (ids.size() < count && it.hasNext()) {
+            ids.add(it.next().filmId());
+        }
+        return ids;
+    }
+
+    /**
+     * Compares the leaderboard with the like counts stored in the database and
+     * overwrites every drifted entry with the stored value.
+     * A film liked while the check runs may be reported as drifted; the next
+     * check settles it.
+     *
+     * @return number of films whose count differed from the database
+     */
+    public int checkConsistency() {
+        return checkConsistency(filmId -> false);
+    }
+
+    /**
+     * Same as {@link #checkConsistency()}, but leaves films matching {@code pending}
+     * alone: their changes are known to be in memory and not yet in the database.
+     * The predicate is evaluated under the leaderboard lock.
+     */
+    public int checkConsistency(LongPredicate pending) {
+        Map<Long, Integer> actual = likeStorage.getLikeCounts();
+        List<Long> unknown;
+        synchronized (this) {
+            unknown = actual.keySet().stream().filter(id -> !entries.containsKey(id)).toList();
+        }
+        Map<Long, Film> unknownFilms = new HashMap<>();
+        filmStorage.findAllByIds(unknown).forEach(film -> unknownFilms.put(film.getId(), film));
+        int drifted = 0;
+        synchronized (this) {
+            for (Map.Entry<Long, Integer> e : actual.entrySet()) {
+                Entry entry = entries.get(e.getKey());
+                if ((entry == null || entry.likes() != e.getValue()) && !pending.test(e.getKey())) {
+                    drifted++;
+                    if (entry != null) {
+                        remove(entry);
+                        put(new Entry(entry.filmId(), e.getValue(), entry.year(), entry.genreIds()));
+                    } else if (unknownFilms.containsKey(e.getKey())) {
+                        put(entry(unknownFilms.get(e.getKey()), e.getValue()));
+                    }
+                }
+            }
+            for (Long filmId : new ArrayList<>(entries.keySet())) {
+                if (!actual.containsKey(filmId)) {
+                    drifted++;
+                    removeFilm(filmId);
+                }
+            }
+        }
+        if (drifted > 0) {
+            // the repaired ranking is a new /films/popular response
+            versions.likesChanged();
+            log.warn("Film leaderboard drifted from the database for {} films, repaired", drifted);
+        }
+        return drifted;
+    }
+
+    private void adjust(long filmId, int delta) {
+        Entry entry = entries.get(filmId);
+        if (entry == null) {
+            return;
+        }
+        remove(entry);
+        put(new Entry(filmId, Math.max(0, entry.likes() + delta), entry.year(), entry.genreIds()));
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.filmId(), entry);
+        for (long key : keys(entry)) {
+            rankings.computeIfAbsent(key, k -> new TreeSet<>(ORDER)).add(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.filmId());
+        for (long key : keys(entry)) {
+            TreeSet<Entry> ranking = rankings.get(key);
+            if (ranking != null) {
+                ranking.remove(entry);
+                if (ranking.isEmpty()) {
+                    rankings.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long[] keys(Entry entry) {
+        int[] genres = entry.genreIds();
+        long[] keys = new long[2 + 2 * genres.length];
+        keys[0] = key(0, 0);
+        keys[1] = key(0, entry.year());
+        for (int i = 0; i < genres.length; i++) {
+            keys[2 + 2 * i] = key(genres[i], 0);
+            keys[3 + 2 * i] = key(genres[i], entry.year());
+        }
+        return keys;
+    }
+
+    private static long key(int genreId, int year) {
+        return ((long) genreId << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    private static Entry entry(Film film, int likes) {
+        int year = film.getReleaseDate() == null ? 0 : film.getReleaseDate().getYear();
+        int[] genreIds = film.getGenres() == null ? NO_GENRES
+                : film.getGenres().stream().mapToInt(Genre::getId).distinct().toArray();
+        return new Entry(film.getId(), likes, year, genreIds);
+    }
+
+    private record Entry(long filmId, int likes, int year, int[] genreIds) {
+    }
+}
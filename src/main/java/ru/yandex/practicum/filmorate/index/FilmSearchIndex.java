@@ -0,0 +1,292 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over film titles and descriptions. Text is split into runs of
+ * letters and digits (any script, so Cyrillic titles work), lower-cased with ё
+ * folded to е. A query token of three or more characters matches the indexed
+ * terms it is a prefix of, a shorter one only the equal term, and a film must
+ * match all query tokens. Relevance is the sum over query tokens of the best field
+ * hit (title counts twice a description, an exact term adds one); ties are broken
+ * by likes and then by id. Built at startup and kept in sync by
+ * {@code FilmService}. The number of terms a token expands to is capped, and the
+ * hits of the rarest token are cut to the best {@link #MAX_CANDIDATES} by score
+ * and likes before the other tokens are matched.
+ */
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    public static final int TITLE = 1;
+    public static final int DESCRIPTION = 2;
+    static final int MIN_PREFIX_LENGTH = 3;
+    static final int MAX_TERMS_PER_TOKEN = 64;
+    public static final int MAX_CANDIDATES = 10_000;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(Comparator.comparingInt(Hit::likes).reversed())
+            .thenComparingLong(Hit::filmId);
+
+    private final FilmStorage filmStorage;
+    private final FilmLeaderboard leaderboard;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> terms = new HashMap<>();
+
+    public FilmSearchIndex(FilmStorage filmStorage, FilmLeaderboard leaderboard) {
+        this.filmStorage = filmStorage;
+        this.leaderboard = leaderboard;
+    }
+
+    @PostConstruct
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            terms.clear();
+            filmStorage.streamFilms(this::index);
+            log.info("Film search index loaded: {} films, {} terms", terms.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a new film or re-indexes an updated one.
+     */
+    public void addFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            unindex(film.getId());
+            index(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        lock.writeLock().lock();
+        try {
+            unindex(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best matching films, most relevant first.
+     *
+     * @param fields bit mask of {@link #TITLE} and {@link #DESCRIPTION}
+     */
+    public List<Long> search(String query, int fields, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            List<Expansion> rarestFirst = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                rarestFirst.add(expand(token));
+            }
+            rarestFirst.sort(Comparator.comparingLong(Expansion::postingCount));
+            for (Expansion expansion : rarestFirst) {
+                Map<Long, Integer> matches = match(expansion, fields, scores);
+                scores = scores == null ? cap(matches) : intersect(scores, matches);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top(scores, limit);
+    }
+
+    /**
+     * Terms a query token stands for: the exact term and, for tokens of at least
+     * {@link #MIN_PREFIX_LENGTH} characters, up to {@link #MAX_TERMS_PER_TOKEN} terms
+     * it is a prefix of. Posting sizes are summed on the way, so ordering the tokens
+     * does not walk the dictionary a second time.
+     */
+    private Expansion expand(String token) {
+        List<Map.Entry<String, Map<Long, Integer>>> matched = new ArrayList<>();
+        long postingCount = 0;
+        Map<Long, Integer> exact = postings.get(token);
+        if (exact != null) {
+            matched.add(Map.entry(token, exact));
+            postingCount += exact.size();
+        }
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            for (Map.Entry<String, Map<Long, Integer>> term
+                    : postings.subMap(token, false, token + Character.MAX_VALUE, true).entrySet()) {
+                if (matched.size() >= MAX_TERMS_PER_TOKEN) {
+                    break;
+                }
+                matched.add(term);
+                postingCount += term.getValue().size();
+            }
+        }
+        return new Expansion(token, matched, postingCount);
+    }
+
+    /**
+     * Best score per film for one query token. Tokens are matched rarest first and,
+     * once the candidate set is known, only those films are scored.
+     */
+    private Map<Long, Integer> match(Expansion expansion, int fields, Map<Long, Integer> candidates) {
+        Map<Long, Integer> best = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term : expansion.terms()) {
+            int exact = term.getKey().equals(expansion.token()) ? 1 : 0;
+            Map<Long, Integer> films = term.getValue();
+            if (candidates != null && candidates.size() < films.size()) {
+                for (Long filmId : candidates.keySet()) {
+                    Integer mask = films.get(filmId);
+                    if (mask != null) {
+                        score(best, filmId, mask & fields, exact);
+                    }
+                }
+                continue;
+            }
+            for (Map.Entry<Long, Integer> posting : films.entrySet()) {
+                if (candidates != null && !candidates.containsKey(posting.getKey())) {
+                    continue;
+                }
+                score(best, posting.getKey(), posting.getValue() & fields, exact);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Cuts the first token's hits down to {@link #MAX_CANDIDATES} in ranking order.
+     * A token scores one of a few small values, so every film above the boundary
+     * score is kept and only the films at the boundary are ranked by likes.
+     */
+    private Map<Long, Integer> cap(Map<Long, Integer> scores) {
+        if (scores.size() <= MAX_CANDIDATES) {
+            return scores;
+        }
+        TreeMap<Integer, List<Long>> byScore = new TreeMap<>(Comparator.reverseOrder());
+        scores.forEach((filmId, score) -> byScore.computeIfAbsent(score, s -> new ArrayList<>()).add(filmId));
+        Map<Long, Integer> kept = new HashMap<>();
+        for (Map.Entry<Integer, List<Long>> group : byScore.entrySet()) {
+            List<Long> ids = group.getValue();
+            int room = MAX_CANDIDATES - kept.size();
+            if (ids.size() > room) {
+                Map<Long, Integer> likes = leaderboard.likesOf(ids);
+                ids.sort(Comparator.<Long>comparingInt(likes::get).reversed().thenComparing(Comparator.naturalOrder()));
+                ids = ids.subList(0, room);
+            }
+            ids.forEach(filmId -> kept.put(filmId, group.getKey()));
+            if (kept.size() == MAX_CANDIDATES) {
+                break;
+            }
+        }
+        return kept;
+    }
+
+    private static void score(Map<Long, Integer> best, Long filmId, int mask, int exact) {
+        if (mask != 0) {
+            best.merge(filmId, ((mask & TITLE) != 0 ? 2 : 1) + exact, Math::max);
+        }
+    }
+
+    /**
+     * The {@code limit} best hits, kept in a heap whose head is the weakest of them.
+     * Like counts of all hits are read from the leaderboard in one call.
+     */
+    private List<Long> top(Map<Long, Integer> scores, int limit) {
+        Map<Long, Integer> likes = leaderboard.likesOf(scores.keySet());
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING.reversed());
+        scores.forEach((filmId, score) -> {
+            heap.add(new Hit(filmId, score, likes.get(filmId)));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+        Long[] ids = new Long[heap.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = heap.poll().filmId();
+        }
+        return List.of(ids);
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> scores, Map<Long, Integer> matches) {
+        Map<Long, Integer> result = new HashMap<>();
+        matches.forEach((filmId, score) -> {
+            Integer previous = scores.get(filmId);
+            if (previous != null) {
+                result.put(filmId, previous + score);
+            }
+        });
+        return result;
+    }
+
+    private void index(Film film) {
+        Map<String, Integer> filmTerms = new HashMap<>();
+        tokenize(film.getName()).forEach(term -> filmTerms.merge(term, TITLE, (a, b) -> a | b));
+        tokenize(film.getDescription()).forEach(term -> filmTerms.merge(term, DESCRIPTION, (a, b) -> a | b));
+        filmTerms.forEach((term, mask) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(film.getId(), mask));
+        terms.put(film.getId(), filmTerms);
+    }
+
+    private void unindex(long filmId) {
+        Map<String, Integer> filmTerms = terms.remove(filmId);
+        if (filmTerms == null) {
+            return;
+        }
+        for (String term : filmTerms.keySet()) {
+            Map<Long, Integer> films = postings.get(term);
+            if (films != null) {
+                films.remove(filmId);
+                if (films.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private record Expansion(String token, List<Map.Entry<String, Map<Long, Integer>>> terms, long postingCount) {
+    }
+
+    private record Hit(long filmId, int score, int likes) {
+    }
+}
@@ -0,0 +1,289 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory copy of the friendships table. Adjacency is kept per user as a sorted
+ * primitive int list indexed by user id, so friends are a slice copy and common
+ * friends a sorted-merge intersection without boxing. The reverse lists (who has
+ * added a user) are kept too, so deleting a user only touches the lists it is in.
+ * Bulk loaded at startup, kept in sync by {@code UserService} and periodically
+ * compared with the table by {@link #checkConsistency()}; disabled with
+ * filmorate.friend-graph.enabled=false.
+ * Friend suggestions walk two hops, reading at most maxFanOut entries of every
+ * adjacency list, so the cost per request is bounded even for very popular users.
+ */
+@Slf4j
+@Component
+public class FriendGraph {
+    private final FriendshipStorage friendshipStorage;
+    private final boolean enabled;
+    private final int maxFanOut;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Adjacency graph = new Adjacency();
+    private List<Consumer<Adjacency>> journal;
+
+    public FriendGraph(FriendshipStorage friendshipStorage,
+                       @Value("${filmorate.friend-graph.enabled:true}") boolean enabled,
+                       @Value("${filmorate.friend-graph.suggestions.max-fan-out:500}") int maxFanOut) {
+        this.friendshipStorage = friendshipStorage;
+        this.enabled = enabled;
+        this.maxFanOut = maxFanOut;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        log.info("Friend graph loaded: {}", memoryUsage());
+    }
+
+    /**
+     * Rebuilds the graph from the friendships table and swaps it in.
+     *
+     * @return number of users whose friend list differed from the table
+     */
+    public int checkConsistency() {
+        if (!enabled) {
+            return 0;
+        }
+        int drifted = rebuild();
+        if (drifted > 0) {
+            log.warn("Friend graph drifted from the database for {} users, rebuilt", drifted);
+        }
+        return drifted;
+    }
+
+    public boolean addFriend(long userId, long friendId) {
+        if (!enabled) {
+            return false;
+        }
+        int user = toIndex(userId);
+        int friend = toIndex(friendId);
+        lock.writeLock().lock();
+        try {
+            record(g -> g.add(user, friend));
+            return graph.add(user, friend);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean removeFriend(long userId, long friendId) {
+        if (!enabled) {
+            return false;
+        }
+        int user = toIndex(userId);
+        int friend = toIndex(friendId);
+        lock.writeLock().lock();
+        try {
+            record(g -> g.remove(user, friend));
+            return graph.remove(user, friend);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        if (!enabled) {
+            return;
+        }
+        int user = toIndex(userId);
+        lock.writeLock().lock();
+        try {
+            record(g -> g.removeUser(user));
+            graph.removeUser(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int[] friendsOf(long userId) {
+        int user = toIndex(userId);
+        lock.readLock().lock();
+        try {
+            return graph.friends.copy(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int degreeOf(long userId) {
+        int user = toIndex(userId);
+        lock.readLock().lock();
+        try {
+            return graph.friends.size(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] commonFriends(long userId, long otherId) {
+        int a = toIndex(userId);
+        int b = toIndex(otherId);
+        lock.readLock().lock();
+        try {
+            SortedIntLists friends = graph.friends;
+            return SortedIntLists.intersect(friends.array(a), friends.size(a), friends.array(b), friends.size(b));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Friends of friends that the user has not added yet, ordered by the number of
+     * mutual friends descending and then by id.
+     */
+    public int[] suggestions(long userId, int limit) {
+        int user = toIndex(userId);
+        int[] candidates;
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            SortedIntLists friends = graph.friends;
+            int[] own = friends.array(user);
+            int ownSize = friends.size(user);
+            int hops = Math.min(ownSize, maxFanOut);
+            int capacity = 0;
+            for (int i = 0; i < hops; i++) {
+                capacity += Math.min(friends.size(own[i]), maxFanOut);
+            }
+            candidates = new int[capacity];
+            for (int i = 0; i < hops; i++) {
+                int[] second = friends.array(own[i]);
+                int secondSize = Math.min(friends.size(own[i]), maxFanOut);
+                for (int j = 0; j < secondSize; j++) {
+                    int candidate = second[j];
+                    if (candidate != user && Arrays.binarySearch(own, 0, ownSize, candidate) < 0) {
+                        candidates[count++] = candidate;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return SortedIntLists.values(SortedIntLists.topByFrequency(candidates, count, limit));
+    }
+
+    public MemoryUsage memoryUsage() {
+        lock.readLock().lock();
+        try {
+            return new MemoryUsage(graph.friends.nonEmptyKeys(), graph.friends.total(),
+                    graph.friends.bytes() + graph.followers.bytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the table without holding the lock. Changes made meanwhile are journaled
+     * and replayed onto the fresh copy before the swap, so none is lost; replaying a
+     * change the table already reflects is a no-op.
+     */
+    private synchronized int rebuild() {
+        setJournal(new ArrayList<>());
+        try {
+            Adjacency fresh = new Adjacency();
+            friendshipStorage.forEachFriendship((userId, friendId) -> fresh.append(toIndex(userId), toIndex(friendId)));
+            fresh.sort();
+            lock.writeLock().lock();
+            try {
+                journal.forEach(change -> change.accept(fresh));
+                int drifted = fresh.diff(graph);
+                graph = fresh;
+                return drifted;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            setJournal(null);
+        }
+    }
+
+    private void setJournal(List<Consumer<Adjacency>> journal) {
+        lock.writeLock().lock();
+        try {
+            this.journal = journal;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Consumer<Adjacency> change) {
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private static int toIndex(long id) {
+        return Math.toIntExact(id);
+    }
+
+    public record MemoryUsage(int users, long edges, long bytes) {
+    }
+
+    /**
+     * Friend lists and their reverse: followers of a user are the users that list it.
+     */
+    private static final class Adjacency {
+        private final SortedIntLists friends = new SortedIntLists();
+        private final SortedIntLists followers = new SortedIntLists();
+
+        void append(int user, int friend) {
+            friends.append(user, friend);
+            followers.append(friend, user);
+        }
+
+        void sort() {
+            friends.sortAll();
+            followers.sortAll();
+        }
+
+        boolean add(int user, int friend) {
+            followers.add(friend, user);
+            return friends.add(user, friend);
+        }
+
+        boolean remove(int user, int friend) {
+            followers.remove(friend, user);
+            return friends.remove(user, friend);
+        }
+
+        void removeUser(int user) {
+            for (int friend : friends.removeKey(user)) {
+                followers.remove(friend, user);
+            }
+            for (int follower : followers.removeKey(user)) {
+                friends.remove(follower, user);
+            }
+        }
+
+        int diff(Adjacency other) {
+            int keys = Math.max(friends.keyCapacity(), other.friends.keyCapacity());
+            int drifted = 0;
+            for (int key = 0; key < keys; key++) {
+                if (!Arrays.equals(friends.array(key), 0, friends.size(key),
+                        other.friends.array(key), 0, other.friends.size(key))) {
+                    drifted++;
+                }
+            }
+            return drifted;
+        }
+    }
+}
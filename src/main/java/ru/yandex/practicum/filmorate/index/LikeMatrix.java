@@ -0,0 +1,167 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sparse user x film like matrix held twice: sorted film ids per user and sorted
+ * user ids per film. Used for user-based collaborative filtering: the users with
+ * the largest like overlap are found through the film posting lists, and the
+ * films they liked that the caller has not are ranked by summed overlap.
+ * Every list scan is capped at maxPostings entries to bound the work per request.
+ * Seeded from the likes table at startup and kept in sync by {@code FilmService}.
+ */
+@Slf4j
+@Component
+public class LikeMatrix {
+    private final LikeStorage likeStorage;
+    private final int neighbours;
+    private final int maxPostings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SortedIntLists filmsByUser = new SortedIntLists();
+    private final SortedIntLists usersByFilm = new SortedIntLists();
+
+    public LikeMatrix(LikeStorage likeStorage,
+                      @Value("${filmorate.recommendations.neighbours:20}") int neighbours,
+                      @Value("${filmorate.recommendations.max-postings:1000}") int maxPostings) {
+        this.likeStorage = likeStorage;
+        this.neighbours = neighbours;
+        this.maxPostings = maxPostings;
+    }
+
+    @PostConstruct
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            filmsByUser.clear();
+            usersByFilm.clear();
+            likeStorage.forEachLike((filmId, userId) -> {
+                filmsByUser.append(toIndex(userId), toIndex(filmId));
+                usersByFilm.append(toIndex(filmId), toIndex(userId));
+            });
+            filmsByUser.sortAll();
+            usersByFilm.sortAll();
+            log.info("Like matrix loaded: {} likes", filmsByUser.total());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the like was new.
+     */
+    public boolean addLike(long filmId, long userId) {
+        lock.writeLock().lock();
+        try {
+            usersByFilm.add(toIndex(filmId), toIndex(userId));
+            return filmsByUser.add(toIndex(userId), toIndex(filmId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the like existed.
+     */
+    public boolean removeLike(long filmId, long userId) {
+        lock.writeLock().lock();
+        try {
+            usersByFilm.remove(toIndex(filmId), toIndex(userId));
+            return filmsByUser.remove(toIndex(userId), toIndex(filmId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        int film = toIndex(filmId);
+        lock.writeLock().lock();
+        try {
+            for (int user : usersByFilm.removeKey(film)) {
+                filmsByUser.remove(user, film);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        int user = toIndex(userId);
+        lock.writeLock().lock();
+        try {
+            for (int film : filmsByUser.removeKey(user)) {
+                usersByFilm.remove(film, user);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return filmsByUser.total();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Film ids recommended to the user, best first: ordered by the summed overlap of
+     * the neighbours who liked them, then by film id.
+     */
+    public int[] recommend(long userId, int limit) {
+        int user = toIndex(userId);
+        lock.readLock().lock();
+        try {
+            int[] own = filmsByUser.array(user);
+            int ownSize = filmsByUser.size(user);
+            int scanned = Math.min(ownSize, maxPostings);
+            int capacity = 0;
+            for (int i = 0; i < scanned; i++) {
+                capacity += Math.min(usersByFilm.size(own[i]), maxPostings);
+            }
+            int[] candidates = new int[capacity];
+            int count = 0;
+            for (int i = 0; i < scanned; i++) {
+                int[] postings = usersByFilm.array(own[i]);
+                int postingsSize = Math.min(usersByFilm.size(own[i]), maxPostings);
+                for (int j = 0; j < postingsSize; j++) {
+                    if (postings[j] != user) {
+                        candidates[count++] = postings[j];
+                    }
+                }
+            }
+            Map<Integer, Integer> scores = new HashMap<>();
+            for (long neighbour : SortedIntLists.topByFrequency(candidates, count, neighbours)) {
+                int other = SortedIntLists.value(neighbour);
+                int overlap = SortedIntLists.count(neighbour);
+                int[] films = filmsByUser.array(other);
+                int filmsSize = Math.min(filmsByUser.size(other), maxPostings);
+                for (int j = 0; j < filmsSize; j++) {
+                    if (Arrays.binarySearch(own, 0, ownSize, films[j]) < 0) {
+                        scores.merge(films[j], overlap, Integer::sum);
+                    }
+                }
+            }
+            PriorityQueue<Long> heap = new PriorityQueue<>(limit + 1);
+            scores.forEach((film, score) -> SortedIntLists.offer(heap, SortedIntLists.rank(score, film), limit));
+            return SortedIntLists.values(SortedIntLists.drain(heap));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int toIndex(long id) {
+        return Math.toIntExact(id);
+    }
+}
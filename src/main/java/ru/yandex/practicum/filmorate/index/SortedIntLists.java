@@ -0,0 +1,249 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted, duplicate-free int lists indexed by a dense int key, backed by primitive
+ * arrays. Not thread-safe: callers guard it with their own lock.
+ */
+final class SortedIntLists {
+    private static final int[] EMPTY = new int[0];
+
+    private int[][] lists = new int[0][];
+    private int[] sizes = new int[0];
+    private long total;
+
+    void clear() {
+        lists = new int[0][];
+        sizes = new int[0];
+        total = 0;
+    }
+
+    boolean add(int key, int value) {
+        ensureKey(key);
+        int[] values = lists[key];
+        int size = sizes[key];
+        // bulk loads arrive sorted, so the common case is an append; an empty key
+        // may have no array yet
+        int pos = size == 0 || values[size - 1] < value ? -(size + 1) : Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -(pos + 1);
+        values = reserve(key, size + 1);
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        values[pos] = value;
+        sizes[key] = size + 1;
+        total++;
+        return true;
+    }
+
+    /**
+     * Appends without keeping order; {@link #sortAll()} must be called before the
+     * lists are read again.
+     */
+    void append(int key, int value) {
+        ensureKey(key);
+        int size = sizes[key];
+        reserve(key, size + 1)[size] = value;
+        sizes[key] = size + 1;
+        total++;
+    }
+
+    void sortAll() {
+        for (int key = 0; key < lists.length; key++) {
+            int size = sizes[key];
+            if (size < 2) {
+                continue;
+            }
+            int[] values = lists[key];
+            Arrays.sort(values, 0, size);
+            int n = 1;
+            for (int i = 1; i < size; i++) {
+                if (values[i] != values[n - 1]) {
+                    values[n++] = values[i];
+                }
+            }
+            sizes[key] = n;
+            total -= size - n;
+        }
+    }
+
+    boolean remove(int key, int value) {
+        if (size(key) == 0) {
+            return false;
+        }
+        int[] values = lists[key];
+        int size = sizes[key];
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        sizes[key] = size - 1;
+        total--;
+        return true;
+    }
+
+    /**
+     * Drops the whole list of {@code key} and returns its former contents.
+     */
+    int[] removeKey(int key) {
+        if (size(key) == 0) {
+            return EMPTY;
+        }
+        int[] removed = Arrays.copyOf(lists[key], sizes[key]);
+        total -= sizes[key];
+        lists[key] = null;
+        sizes[key] = 0;
+        return removed;
+    }
+
+    boolean contains(int key, int value) {
+        return size(key) > 0 && Arrays.binarySearch(lists[key], 0, sizes[key], value) >= 0;
+    }
+
+    int size(int key) {
+        return key >= 0 && key < lists.length ? sizes[key] : 0;
+    }
+
+    /**
+     * Backing array of {@code key}; only the first {@link #size(int)} elements are valid.
+     */
+    int[] array(int key) {
+        return size(key) > 0 ? lists[key] : EMPTY;
+    }
+
+    int[] copy(int key) {
+        return size(key) > 0 ? Arrays.copyOf(lists[key], sizes[key]) : EMPTY;
+    }
+
+    int keyCapacity() {
+        return lists.length;
+    }
+
+    long total() {
+        return total;
+    }
+
+    int nonEmptyKeys() {
+        int keys = 0;
+        for (int size : sizes) {
+            if (size > 0) {
+                keys++;
+            }
+        }
+        return keys;
+    }
+
+    long bytes() {
+        long bytes = arrayBytes(lists.length) + arrayBytes(sizes.length);
+        for (int[] values : lists) {
+            if (values != null) {
+                bytes += arrayBytes(values.length);
+            }
+        }
+        return bytes;
+    }
+
+    static int[] intersect(int[] a, int aLength, int[] b, int bLength) {
+        int[] result = new int[Math.min(aLength, bLength)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < aLength && j < bLength) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Sorts the values, run-length counts them and keeps the best {@code limit} in a
+     * min-heap. Ranks are ordered by count descending, then value ascending; decode
+     * them with {@link #count(long)} and {@link #value(long)}.
+     */
+    static long[] topByFrequency(int[] values, int size, int limit) {
+        Arrays.sort(values, 0, size);
+        PriorityQueue<Long> heap = new PriorityQueue<>(limit + 1);
+        int i = 0;
+        while (i < size) {
+            int value = values[i];
+            int j = i;
+            while (j < size && values[j] == value) {
+                j++;
+            }
+            offer(heap, rank(j - i, value), limit);
+            i = j;
+        }
+        return drain(heap);
+    }
+
+    static void offer(PriorityQueue<Long> heap, long rank, int limit) {
+        heap.add(rank);
+        if (heap.size() > limit) {
+            heap.poll();
+        }
+    }
+
+    static long[] drain(PriorityQueue<Long> heap) {
+        long[] result = new long[heap.size()];
+        for (int n = result.length - 1; n >= 0; n--) {
+            result[n] = heap.poll();
+        }
+        return result;
+    }
+
+    static int[] values(long[] ranks) {
+        int[] result = new int[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            result[i] = value(ranks[i]);
+        }
+        return result;
+    }
+
+    static long rank(int count, int value) {
+        return ((long) count << 32) | (~value & 0xFFFFFFFFL);
+    }
+
+    static int count(long rank) {
+        return (int) (rank >>> 32);
+    }
+
+    static int value(long rank) {
+        return (int) ~rank;
+    }
+
+    private void ensureKey(int key) {
+        if (key < lists.length) {
+            return;
+        }
+        int capacity = Math.max(key + 1, lists.length + (lists.length >> 1));
+        lists = Arrays.copyOf(lists, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+    }
+
+    private int[] reserve(int key, int capacity) {
+        int[] values = lists[key];
+        if (values == null) {
+            values = new int[Math.max(4, capacity)];
+            lists[key] = values;
+        } else if (values.length < capacity) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 1));
+            lists[key] = values;
+        }
+        return values;
+    }
+
+    private static long arrayBytes(int length) {
+        return 16 + (long) length * 4;
+    }
+}
@@ -0,0 +1,252 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding-window like counters for trending films. Every film liked within the
+ * last week has two ring buffers: 12 five-minute buckets for the 1h window and 168
+ * hourly buckets for the 24h and 7d windows. A like bumps the current bucket of
+ * both rings in O(1); buckets that fall out of a ring are zeroed when the ring is
+ * next touched and films without a like for a week are dropped on read, so the
+ * likes table is only read once, for the last week, at startup. The time of every
+ * like of the last week is kept with its counter, so an unlike is taken back from
+ * the bucket the like was counted in without asking the database.
+ * Decay scoring weighs each bucket by 2^(-age / half-life), the half-life being a
+ * quarter of the window.
+ * Each counter is locked on its own: a read scores the films one by one and never
+ * holds up likes of other films.
+ */
+@Slf4j
+@Component
+public class TrendingCounters {
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    private static final long WEEK_MILLIS = 168 * HOUR_MILLIS;
+
+    private final LikeStorage likeStorage;
+    private final Clock clock;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrendingCounters(LikeStorage likeStorage) {
+        this(likeStorage, Clock.systemUTC());
+    }
+
+    public TrendingCounters(LikeStorage likeStorage, Clock clock) {
+        this.likeStorage = likeStorage;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void load() {
+        long now = clock.millis();
+        Map<Long, Counter> loaded = new HashMap<>();
+        likeStorage.forEachLikeSince(Instant.ofEpochMilli(now - WEEK_MILLIS), like -> loaded
+                .computeIfAbsent(like.filmId(), id -> new Counter(now))
+                .like(like.userId(), like.likedAt().toEpochMilli(), now));
+        counters.clear();
+        counters.putAll(loaded);
+        log.info("Trending counters loaded: {} films liked in the last week", loaded.size());
+    }
+
+    public void like(long filmId, long userId) {
+        long now = clock.millis();
+        counters.compute(filmId, (id, counter) -> {
+            Counter c = counter != null ? counter : new Counter(now);
+            synchronized (c) {
+                c.like(userId, now, now);
+            }
+            return c;
+        });
+    }
+
+    /**
+     * Takes back a like in the bucket it was counted in; likes older than a week
+     * are no longer in any window and are ignored.
+     */
+    public void unlike(long filmId, long userId) {
+        Counter counter = counters.get(filmId);
+        if (counter != null) {
+            synchronized (counter) {
+                counter.unlike(userId, clock.millis());
+            }
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        counters.remove(filmId);
+    }
+
+    /**
+     * Film ids with the highest score in the window, best first, ties by id.
+     * Films without likes in the window are left out.
+     */
+    public List<Long> top(Window window, boolean decay, int count) {
+        long now = clock.millis();
+        Comparator<Scored> order = Comparator.comparingDouble(Scored::score).reversed().thenComparingLong(Scored::filmId);
+        PriorityQueue<Scored> heap = new PriorityQueue<>(count + 1, order.reversed());
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            double score;
+            synchronized (counter) {
+                score = counter.isStale(now) ? -1 : window.score(counter, now, decay);
+            }
+            if (score < 0) {
+                counters.computeIfPresent(entry.getKey(), (id, c) -> {
+                    synchronized (c) {
+                        return c.isStale(now) ? null : c;
+                    }
+                });
+            } else if (score > 0) {
+                heap.offer(new Scored(entry.getKey(), score));
+                if (heap.size() > count) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Scored> best = new ArrayList<>(heap);
+        best.sort(order);
+        return best.stream().map(Scored::filmId).toList();
+    }
+
+    public enum Window {
+        HOUR("1h", 12),
+        DAY("24h", 24),
+        WEEK("7d", 168);
+
+        private final String label;
+        private final int buckets;
+
+        Window(String label, int buckets) {
+            this.label = label;
+            this.buckets = buckets;
+        }
+
+        public static Optional<Window> fromLabel(String label) {
+            return Arrays.stream(values()).filter(w -> w.label.equals(label)).findFirst();
+        }
+
+        private double score(Counter counter, long now, boolean decay) {
+            Ring ring = this == HOUR ? counter.minutes : counter.hours;
+            return ring.sum(now, buckets, decay ? buckets / 4.0 : 0);
+        }
+    }
+
+    /**
+     * Rings of one film plus the like time per user, oldest like first.
+     */
+    private static final class Counter {
+        private final Ring minutes;
+        private final Ring hours;
+        private final LinkedHashMap<Long, Long> likedAt = new LinkedHashMap<>();
+        private long lastLike;
+
+        Counter(long now) {
+            minutes = new Ring(5 * MINUTE_MILLIS, 12, now);
+            hours = new Ring(HOUR_MILLIS, 168, now);
+        }
+
+        void like(long userId, long at, long now) {
+            likedAt.remove(userId);
+            likedAt.put(userId, at);
+            add(at, now, 1);
+            lastLike = Math.max(lastLike, at);
+            Iterator<Long> oldest = likedAt.values().iterator();
+            while (oldest.hasNext() && now - oldest.next() >= WEEK_MILLIS) {
+                oldest.remove();
+            }
+        }
+
+        void unlike(long userId, long now) {
+            Long at = likedAt.remove(userId);
+            if (at != null) {
+                add(at, now, -1);
+            }
+        }
+
+        boolean isStale(long now) {
+            return now - lastLike >= WEEK_MILLIS;
+        }
+
+        private void add(long at, long now, int delta) {
+            minutes.add(at, now, delta);
+            hours.add(at, now, delta);
+        }
+    }
+
+    /**
+     * Fixed number of per-bucket counts; head is the bucket of the latest touch.
+     */
+    private static final class Ring {
+        private final long bucketMillis;
+        private final int[] counts;
+        private long head;
+
+        Ring(long bucketMillis, int size, long now) {
+            this.bucketMillis = bucketMillis;
+            this.counts = new int[size];
+            this.head = now / bucketMillis;
+        }
+
+        void add(long at, long now, int delta) {
+            advance(now / bucketMillis);
+            long bucket = Math.min(at / bucketMillis, head);
+            if (bucket > head - counts.length) {
+                int i = index(bucket);
+                counts[i] = Math.max(0, counts[i] + delta);
+            }
+        }
+
+        /**
+         * Sum of the newest {@code buckets} buckets; with a positive half-life (in
+         * buckets) every bucket is weighed by its age.
+         */
+        double sum(long now, int buckets, double halfLife) {
+            advance(now / bucketMillis);
+            double sum = 0;
+            for (int age = 0; age < buckets; age++) {
+                int c = counts[index(head - age)];
+                if (c != 0) {
+                    sum += halfLife > 0 ? c * Math.pow(0.5, age / halfLife) : c;
+                }
+            }
+            return sum;
+        }
+
+        private void advance(long bucket) {
+            if (bucket <= head) {
+                return;
+            }
+            long gap = Math.min(bucket - head, counts.length);
+            for (long b = bucket - gap + 1; b <= bucket; b++) {
+                counts[index(b)] = 0;
+            }
+            head = bucket;
+        }
+
+        private int index(long bucket) {
+            return (int) Math.floorMod(bucket, (long) counts.length);
+        }
+    }
+
+    private record Scored(long filmId, double score) {
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the storage repositories. Publishes, tagged by
+ * storage and operation: filmorate.storage.calls (timer, also tagged by outcome),
+ * filmorate.storage.rows (rows returned by collection, map and Optional results)
+ * and filmorate.storage.errors (tagged by exception class). Methods that stream
+ * rows into a callback include the callback's time.
+ */
+@Aspect
+@Component
+public class StorageMetricsAspect {
+    private final MeterRegistry registry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public StorageMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(ru.yandex.practicum.filmorate.storage..*) && @within(org.springframework.stereotype.Repository) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String storage = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String operation = joinPoint.getSignature().getName();
+        Meters m = meters.computeIfAbsent(storage + '.' + operation, key -> new Meters(storage, operation));
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            m.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            int rows = rowCount(result);
+            if (rows >= 0) {
+                m.rows.record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            m.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Counter.builder("filmorate.storage.errors")
+                    .tag("storage", storage)
+                    .tag("operation", operation)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+            throw e;
+        }
+    }
+
+    private static int rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private final class Meters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        private Meters(String storage, String operation) {
+            this.success = timer(storage, operation, "success");
+            this.error = timer(storage, operation, "error");
+            this.rows = DistributionSummary.builder("filmorate.storage.rows")
+                    .tag("storage", storage)
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private Timer timer(String storage, String operation, String outcome) {
+            return Timer.builder("filmorate.storage.calls")
+                    .tag("storage", storage)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk film import for POST /films/batch. The body is either a JSON array or
+ * newline-delimited JSON objects; it is read one film at a time with the Jackson
+ * streaming parser and valid films are inserted in chunks, so heap usage does not
+ * grow with the payload. One result object per input item is streamed back in
+ * input order: results are buffered per chunk and written once the chunk's films
+ * are stored. A chunk that fails to insert is reported as rejected item by item.
+ */
+@Slf4j
+@Service
+public class FilmImportService {
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public FilmImportService(FilmService filmService, ObjectMapper objectMapper, Validator validator, @Value("${filmorate.import.chunk-size:500}") int chunkSize) {
+        this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public void importFilms(InputStream in, OutputStream out) throws IOException {
+        int total = 0;
+        try (JsonParser parser = objectMapper.createParser(in);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            List<Item> chunk = new ArrayList<>(chunkSize);
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        Film film = objectMapper.treeToValue(node, Film.class);
+                        String error = validate(film);
+                        chunk.add(error == null ? new Item(total, film, null) : new Item(total, null, error));
+                    } catch (JsonProcessingException e) {
+                        chunk.add(new Item(total, null, "Invalid film: " + e.getOriginalMessage()));
+                    }
+                    total++;
+                    if (chunk.size() >= chunkSize) {
+                        flush(chunk, generator);
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                chunk.add(new Item(total, null, "Malformed JSON: " + e.getOriginalMessage()));
+            }
+            flush(chunk, generator);
+            generator.writeEndArray();
+        }
+        log.info("Film import finished: {} items processed", total);
+    }
+
+    private String validate(Film film) {
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (film.getReleaseDate().isBefore(FilmService.MIN_RELEASE_DATE)) {
+            return "Дата релиза должна быть не раньше 28.12.1895";
+        }
+        try {
+            filmService.validateMpaAndGenres(film);
+        } catch (NotFoundException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private void flush(List<Item> chunk, JsonGenerator generator) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Film> films = chunk.stream().map(Item::film).filter(Objects::nonNull).collect(Collectors.toList());
+        Iterator<Film> created = null;
+        String failure = null;
+        if (!films.isEmpty()) {
+            try {
+                created = filmService.createAll(films).iterator();
+            } catch (DataAccessException e) {
+                log.warn("Film import chunk of {} films failed: {}", films.size(), e.getMessage());
+                failure = "Insert failed: " + e.getMostSpecificCause().getMessage();
+            }
+        }
+        for (Item item : chunk) {
+            if (item.film() == null) {
+                writeRejected(generator, item.index(), item.error());
+            } else if (failure != null) {
+                writeRejected(generator, item.index(), failure);
+            } else {
+                generator.writeStartObject();
+                generator.writeNumberField("index", item.index());
+                generator.writeStringField("status", "CREATED");
+                generator.writeNumberField("id", created.next().getId());
+                generator.writeEndObject();
+            }
+        }
+        generator.flush();
+        chunk.clear();
+    }
+
+    private void writeRejected(JsonGenerator generator, int index, String error) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        generator.writeStringField("status", "REJECTED");
+        generator.writeStringField("error", error);
+        generator.writeEndObject();
+    }
+
+    /**
+     * One input item: the parsed film when it passed validation, otherwise the error.
+     */
+    private record Item(int index, Film film, String error) {
+    }
+}
@@ -1,109 +1,288 @@
 package ru.yandex.practicum.filmorate.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.cache.FilmJsonCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingCounters;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
-import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeChange;
 import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
-import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class FilmService {
+    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
-    private final MpaStorage mpaStorage;
-    private final GenreStorage genreStorage;
     private final LikeStorage likeStorage;
+    private final DictionaryCache dictionary;
+    private final FilmLeaderboard leaderboard;
+    private final LikeMatrix likeMatrix;
+    private final CatalogVersions versions;
+    private final FilmJsonCache filmJsonCache;
+    private final LikeWriteBehind likeWriteBehind;
+    private final FilmSearchIndex searchIndex;
+    private final TrendingCounters trending;
 
-    public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage, @Qualifier("userDbStorage") UserStorage userStorage, @Qualifier("mpaDbStorage") MpaStorage mpaStorage, @Qualifier("genreDbStorage") GenreStorage genreStorage, @Qualifier("likeDbStorage") LikeStorage likeStorage) {
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, LikeStorage likeStorage, DictionaryCache dictionary, FilmLeaderboard leaderboard, LikeMatrix likeMatrix, CatalogVersions versions, FilmJsonCache filmJsonCache, LikeWriteBehind likeWriteBehind, FilmSearchIndex searchIndex, TrendingCounters trending) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
-        this.mpaStorage = mpaStorage;
-        this.genreStorage = genreStorage;
         this.likeStorage = likeStorage;
+        this.dictionary = dictionary;
+        this.leaderboard = leaderboard;
+        this.likeMatrix = likeMatrix;
+        this.versions = versions;
+        this.filmJsonCache = filmJsonCache;
+        this.likeWriteBehind = likeWriteBehind;
+        this.searchIndex = searchIndex;
+        this.trending = trending;
+        likeWriteBehind.onDropped(this::revertDroppedChange);
     }
 
     public List<Film> getFilms() {
-        log.info("Fetching all films");
+        log.debug("Fetching all films");
         List<Film> films = filmStorage.getFilms();
-        log.info("Found {} films", films.size());
+        log.debug("Found {} films", films.size());
         return films;
     }
 
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        Paging.checkSize("limit", limit);
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    public void streamFilms(Consumer<Film> consumer) {
+        log.debug("Streaming all films");
+        filmStorage.streamFilms(consumer);
+    }
+
     public Film create(Film film) {
-        log.info("Creating film: {}", film);
+        log.debug("Creating film name={}", film.getName());
         validateMpaAndGenres(film);
         Film created = filmStorage.create(film);
+        leaderboard.addFilm(created);
+        searchIndex.addFilm(created);
+        versions.filmsChanged();
         log.info("Created film with id={}", created.getId());
         return created;
     }
 
+    public List<Film> createAll(List<Film> films) {
+        List<Film> created = filmStorage.createAll(films);
+        created.forEach(f -> {
+            leaderboard.addFilm(f);
+            searchIndex.addFilm(f);
+        });
+        versions.filmsChanged();
+        log.info("Imported {} films", created.size());
+        return created;
+    }
+
     public Film update(Film film) {
-        log.info("Updating film: {}", film);
+        log.debug("Updating film id={}", film.getId());
         validateMpaAndGenres(film);
         Film updated = filmStorage.update(film);
+        leaderboard.updateFilm(updated);
+        searchIndex.addFilm(updated);
+        filmJsonCache.invalidate(updated.getId());
+        versions.filmsChanged();
         log.info("Updated film id={}", updated.getId());
         return updated;
     }
 
     public void deleteFilm(long id) {
-        log.info("Deleting film id={}", id);
-        getFilmOrThrow(id);
-        likeStorage.removeAllLikesByFilmId(id);
-        filmStorage.delete(id);
+        log.debug("Deleting film id={}", id);
+        validateFilmExists(id);
+        // no flush may insert a like of this film between removing its likes and deleting it
+        likeWriteBehind.flushAndRun(() -> {
+            likeWriteBehind.discardFilm(id);
+            likeStorage.removeAllLikesByFilmId(id);
+            filmStorage.delete(id);
+            return null;
+        });
+        leaderboard.removeFilm(id);
+        searchIndex.removeFilm(id);
+        trending.removeFilm(id);
+        likeMatrix.removeFilm(id);
+        filmJsonCache.invalidate(id);
+        versions.filmsChanged();
         log.info("Deleted film id={} (and its likes)", id);
     }
 
     public Film getFilmOrThrow(long id) {
-        log.info("Looking up film id={}", id);
+        log.debug("Looking up film id={}", id);
         return filmStorage.findById(id).orElseThrow(() -> {
             log.warn("Film not found id={}", id);
             return new NotFoundException("Film with id=" + id + " not found.");
         });
     }
 
+    /**
+     * The film serialized as JSON, served from {@link FilmJsonCache}.
+     */
+    public byte[] getFilmJson(long id) {
+        return filmJsonCache.get(id, this::getFilmOrThrow);
+    }
+
     public void addLike(long filmId, long userId) {
-        log.info("User {} likes film {}", userId, filmId);
+        log.debug("User {} likes film {}", userId, filmId);
         validateUserExists(userId);
-        getFilmOrThrow(filmId);
-        likeStorage.addLike(filmId, userId);
-        log.info("User {} liked film {}", userId, filmId);
+        validateFilmExists(filmId);
+        if (likeWriteBehind.isEnabled()) {
+            if (likeWriteBehind.like(filmId, userId, () -> likeInMemory(filmId, userId))) {
+                versions.likesChanged();
+            }
+        } else if (likeStorage.addLike(filmId, userId)) {
+            leaderboard.increment(filmId);
+            likeMatrix.addLike(filmId, userId);
+            trending.like(filmId, userId);
+            versions.likesChanged();
+        }
+        log.debug("User {} liked film {}", userId, filmId);
     }
 
     public void removeLike(long filmId, long userId) {
-        log.info("User {} unlikes film {}", userId, filmId);
+        log.debug("User {} unlikes film {}", userId, filmId);
         validateUserExists(userId);
-        getFilmOrThrow(filmId);
-        likeStorage.removeLike(filmId, userId);
-        log.info("User {} removed like from film {}", userId, filmId);
+        validateFilmExists(filmId);
+        if (likeWriteBehind.isEnabled()) {
+            if (likeWriteBehind.unlike(filmId, userId, () -> unlikeInMemory(filmId, userId))) {
+                versions.likesChanged();
+            }
+        } else {
+            if (likeStorage.removeLike(filmId, userId)) {
+                leaderboard.decrement(filmId);
+                likeMatrix.removeLike(filmId, userId);
+                trending.unlike(filmId, userId);
+                versions.likesChanged();
+            }
+        }
+        log.debug("User {} removed like from film {}", userId, filmId);
     }
 
     public List<Film> getPopularFilms(int count) {
-        log.info("Fetching top {} popular films", count);
-        List<Film> popular = likeStorage.getTopLikedFilms(count);
-        log.info("Found {} popular films", popular.size());
+        return getPopularFilms(count, null, null);
+    }
+
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        log.debug("Fetching top {} popular films, genreId={}, year={}", count, genreId, year);
+        List<Film> popular = filmStorage.findAllByIds(leaderboard.top(count, genreId, year));
+        log.debug("Found {} popular films", popular.size());
         return popular;
     }
 
-    private void validateMpaAndGenres(Film film) {
-        mpaStorage.findById(film.getMpa().getId()).orElseThrow(() -> new NotFoundException("MPA with id=" + film.getMpa().getId() + " not found."));
+    /**
+     * @param window one of 1h, 24h, 7d
+     * @param scoring count, or decay to favour the most recent likes in the window
+     */
+    public List<Film> getTrendingFilms(String window, String scoring, int count) {
+        Paging.checkSize("count", count);
+        TrendingCounters.Window w = TrendingCounters.Window.fromLabel(window)
+                .orElseThrow(() -> new ValidationException("window must be one of 1h, 24h, 7d."));
+        if (!scoring.equals("count") && !scoring.equals("decay")) {
+            throw new ValidationException("scoring must be count or decay.");
+        }
+        List<Film> found = filmStorage.findAllByIds(trending.top(w, scoring.equals("decay"), count));
+        log.debug("Found {} trending films for window {}", found.size(), window);
+        return found;
+    }
+
+    /**
+     * @param by comma-separated fields to search: title, description
+     */
+    public List<Film> searchFilms(String query, String by, int count) {
+        Paging.checkSize("count", count);
+        int fields = 0;
+        for (String field : by.split(",")) {
+            switch (field.trim().toLowerCase()) {
+                case "title" -> fields |= FilmSearchIndex.TITLE;
+                case "description" -> fields |= FilmSearchIndex.DESCRIPTION;
+                default -> throw new ValidationException("by must list title and/or description.");
+            }
+        }
+        List<Film> found = filmStorage.findAllByIds(searchIndex.search(query, fields, count));
+        log.debug("Search '{}' by {} found {} films", query, by, found.size());
+        return found;
+    }
+
+    public List<Film> getRecommendations(long userId, int limit) {
+        Paging.checkSize("limit", limit);
+        validateUserExists(userId);
+        int[] filmIds = likeMatrix.recommend(userId, limit);
+        List<Film> recommended = filmStorage.findAllByIds(Arrays.stream(filmIds).asLongStream().boxed().toList());
+        log.debug("Found {} recommendations for user {}", recommended.size(), userId);
+        return recommended;
+    }
+
+    void validateMpaAndGenres(Film film) {
+        dictionary.findMpa(film.getMpa().getId()).orElseThrow(() -> new NotFoundException("MPA with id=" + film.getMpa().getId() + " not found."));
         if (film.getGenres() != null) {
             for (Genre g : film.getGenres()) {
-                genreStorage.findById(g.getId()).orElseThrow(() -> new NotFoundException("Genre with id=" + g.getId() + " not found."));
+                dictionary.findGenre(g.getId()).orElseThrow(() -> new NotFoundException("Genre with id=" + g.getId() + " not found."));
             }
         }
     }
 
+    /**
+     * Applies a write-behind like to the in-memory indexes. It runs under the lock of
+     * the queued (film, user) change, so concurrent likes and unlikes of one pair
+     * reach the matrix, the leaderboard and the trending counters in the same order.
+     */
+    private boolean likeInMemory(long filmId, long userId) {
+        if (!likeMatrix.addLike(filmId, userId)) {
+            return false;
+        }
+        leaderboard.increment(filmId);
+        trending.like(filmId, userId);
+        return true;
+    }
+
+    private boolean unlikeInMemory(long filmId, long userId) {
+        if (!likeMatrix.removeLike(filmId, userId)) {
+            return false;
+        }
+        leaderboard.decrement(filmId);
+        trending.unlike(filmId, userId);
+        return true;
+    }
+
+    /**
+     * Takes back the in-memory side of a change the write-behind could not write.
+     */
+    private void revertDroppedChange(LikeChange change) {
+        boolean reverted = change.liked()
+                ? unlikeInMemory(change.filmId(), change.userId())
+                : likeInMemory(change.filmId(), change.userId());
+        if (reverted) {
+            versions.likesChanged();
+        }
+    }
+
+    private void validateFilmExists(long filmId) {
+        if (!filmStorage.existsById(filmId)) {
+            log.warn("Film not found id={}", filmId);
+            throw new NotFoundException("Film with id=" + filmId + " not found.");
+        }
+    }
+
     private void validateUserExists(long userId) {
-        if (userStorage.findById(userId).isEmpty()) {
+        if (!userStorage.existsById(userId)) {
             log.warn("User not found id={}", userId);
             throw new NotFoundException("User with id=" + userId + " not found.");
         }
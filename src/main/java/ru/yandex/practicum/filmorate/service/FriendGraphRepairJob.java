@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+
+/**
+ * Periodically rebuilds the in-memory friend graph from the friendships table.
+ * The table write and the graph update in {@code UserService} are two steps, so a
+ * failure between them would otherwise leave the graph wrong until a restart.
+ */
+@Component
+public class FriendGraphRepairJob {
+    private final FriendGraph friendGraph;
+
+    public FriendGraphRepairJob(FriendGraph friendGraph) {
+        this.friendGraph = friendGraph;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.friend-graph.repair-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.friend-graph.repair-interval-ms:3600000}")
+    public void repair() {
+        friendGraph.checkConsistency();
+    }
+}
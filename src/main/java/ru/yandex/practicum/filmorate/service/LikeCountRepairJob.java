@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+/**
+ * Periodically recomputes films.like_count from the likes table and then
+ * re-syncs the in-memory leaderboard with the repaired counters. Pending
+ * write-behind likes are flushed first and further flushes wait until the check
+ * is done; films liked meanwhile are skipped, so they are not taken for drift.
+ */
+@Slf4j
+@Component
+public class LikeCountRepairJob {
+    private final LikeStorage likeStorage;
+    private final FilmLeaderboard leaderboard;
+    private final LikeWriteBehind likeWriteBehind;
+
+    public LikeCountRepairJob(LikeStorage likeStorage, FilmLeaderboard leaderboard, LikeWriteBehind likeWriteBehind) {
+        this.likeStorage = likeStorage;
+        this.leaderboard = leaderboard;
+        this.likeWriteBehind = likeWriteBehind;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.likes.repair-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.likes.repair-interval-ms:3600000}")
+    public void repair() {
+        likeWriteBehind.flushAndRun(() -> {
+            int repaired = likeStorage.recomputeLikeCounts();
+            if (repaired > 0) {
+                log.warn("Repaired like_count for {} films", repaired);
+            }
+            return leaderboard.checkConsistency(likeWriteBehind::hasPendingChanges);
+        });
+    }
+}
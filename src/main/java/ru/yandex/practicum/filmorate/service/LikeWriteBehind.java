@@ -0,0 +1,209 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.like.LikeChange;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind buffer for likes (filmorate.likes.write-behind.enabled).
+ * Pending changes are collapsed per (film, user), the last one wins, and flushed to
+ * the likes table in JDBC batches when batch-size changes are pending or every
+ * flush-interval-ms, and once more on shutdown. Readers never see the lag: the
+ * in-memory indexes are updated together with queueing a change, and a change
+ * that cannot be written is handed to {@link #onDropped} to be taken back.
+ */
+@Slf4j
+@Component
+public class LikeWriteBehind {
+    private final LikeStorage likeStorage;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<Key, Boolean> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile Consumer<LikeChange> dropHandler = change -> {
+    };
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "like-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LikeWriteBehind(LikeStorage likeStorage,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize) {
+        this.likeStorage = likeStorage;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies an in-memory like and queues it if {@code apply} reports a change. Both
+     * happen under the lock of the (film, user) entry, so concurrent likes and unlikes
+     * of the same pair are queued in the order the in-memory state changed.
+     *
+     * @return the result of {@code apply}
+     */
+    public boolean like(long filmId, long userId, BooleanSupplier apply) {
+        return enqueue(filmId, userId, true, apply);
+    }
+
+    /**
+     * Same as {@link #like(long, long, BooleanSupplier)} for removing a like.
+     */
+    public boolean unlike(long filmId, long userId, BooleanSupplier apply) {
+        return enqueue(filmId, userId, false, apply);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public boolean hasPendingChanges(long filmId) {
+        return pending.keySet().stream().anyMatch(key -> key.filmId() == filmId);
+    }
+
+    /**
+     * Flushes and runs {@code action} before any later change is written, so the
+     * likes table differs from memory only by the films with pending changes.
+     */
+    public synchronized <T> T flushAndRun(Supplier<T> action) {
+        flush();
+        return action.get();
+    }
+
+    /**
+     * Called with every change that could not be written, so its in-memory side can
+     * be taken back. Not called when a newer change of the same pair is queued.
+     */
+    public void onDropped(Consumer<LikeChange> handler) {
+        this.dropHandler = handler;
+    }
+
+    /**
+     * Drops queued changes of a film that is being deleted.
+     */
+    public void discardFilm(long filmId) {
+        pending.keySet().removeIf(key -> key.filmId() == filmId);
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.likes.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        if (enabled && !pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything queued so far. Changes queued for the same key while a batch
+     * is written stay pending for the next flush.
+     */
+    public synchronized int flush() {
+        int written = 0;
+        List<LikeChange> batch = new ArrayList<>(batchSize);
+        Iterator<Map.Entry<Key, Boolean>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Boolean> entry = it.next();
+            Key key = entry.getKey();
+            Boolean liked = entry.getValue();
+            if (pending.remove(key, liked)) {
+                batch.add(new LikeChange(key.filmId(), key.userId(), liked));
+            }
+            if (batch.size() == batchSize) {
+                written += write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += write(batch);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void drain() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!pending.isEmpty()) {
+            log.info("Flushing {} pending likes on shutdown", pending.size());
+            flush();
+        }
+    }
+
+    private boolean enqueue(long filmId, long userId, boolean liked, BooleanSupplier apply) {
+        boolean[] changed = new boolean[1];
+        pending.compute(new Key(filmId, userId), (key, queued) -> {
+            changed[0] = apply.getAsBoolean();
+            return changed[0] ? Boolean.valueOf(liked) : queued;
+        });
+        if (!changed[0]) {
+            return false;
+        }
+        if (pending.size() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Writes one batch; if the batch fails it is retried change by change so a single
+     * bad row (for example a film deleted meanwhile) does not lose the others.
+     */
+    private int write(List<LikeChange> batch) {
+        try {
+            return likeStorage.applyLikes(batch);
+        } catch (DataAccessException e) {
+            log.warn("Like batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            int written = 0;
+            for (LikeChange change : batch) {
+                try {
+                    written += likeStorage.applyLikes(List.of(change));
+                } catch (DataAccessException single) {
+                    log.warn("Dropping like change {}: {}", change, single.getMessage());
+                    revert(change);
+                }
+            }
+            return written;
+        }
+    }
+
+    private void revert(LikeChange change) {
+        pending.compute(new Key(change.filmId(), change.userId()), (key, queued) -> {
+            if (queued == null) {
+                dropHandler.accept(change);
+            }
+            return queued;
+        });
+    }
+
+    private record Key(long filmId, long userId) {
+    }
+}
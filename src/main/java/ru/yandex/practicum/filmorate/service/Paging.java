@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Page size bounds shared by the paged and top-N endpoints of all services.
+ */
+public final class Paging {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private Paging() {
+    }
+
+    /**
+     * Rejects a page size or count outside 1..{@link #MAX_PAGE_SIZE}.
+     */
+    public static void checkSize(String name, int value) {
+        if (value <= 0 || value > MAX_PAGE_SIZE) {
+            throw new ValidationException(name + " must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+}
@@ -1,34 +1,38 @@
 package ru.yandex.practicum.filmorate.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class UserService {
     private final UserStorage userStorage;
     private final FriendshipStorage friendshipStorage;
+    private final FriendGraph friendGraph;
+    private final LikeMatrix likeMatrix;
 
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage, @Qualifier("friendshipDbStorage") FriendshipStorage friendshipStorage) {
+    public UserService(UserStorage userStorage, FriendshipStorage friendshipStorage, FriendGraph friendGraph, LikeMatrix likeMatrix) {
         this.userStorage = userStorage;
         this.friendshipStorage = friendshipStorage;
+        this.friendGraph = friendGraph;
+        this.likeMatrix = likeMatrix;
     }
 
     private void validateUser(User user) {
-        log.debug("Validating user: {}", user);
+        log.debug("Validating user login={}", user.getLogin());
         if (user.getEmail() == null || user.getEmail().isBlank() || !user.getEmail().contains("@")) {
             log.warn("Invalid email: {}", user.getEmail());
             throw new ValidationException("Email must not be empty and must contain '@'.");
@@ -42,92 +46,125 @@ public class UserService {
             throw new ValidationException("Birthday cannot be in the future.");
         }
         if (user.getName() == null || user.getName().isBlank()) {
-            log.info("Name is blank, setting login as name: {}", user.getLogin());
+            log.debug("Name is blank, setting login as name: {}", user.getLogin());
             user.setName(user.getLogin());
         }
     }
 
     public User create(User user) {
-        log.info("Creating user: {}", user);
+        log.debug("Creating user login={}", user.getLogin());
         validateUser(user);
         User created = userStorage.create(user);
-        log.info("Created user: {}", created);
+        log.info("Created user id={}", created.getId());
         return created;
     }
 
     public User update(User user) {
-        log.info("Updating user: {}", user);
+        log.debug("Updating user id={}", user.getId());
         validateUser(user);
         User updated = userStorage.update(user);
-        log.info("Updated user: {}", updated);
+        log.info("Updated user id={}", updated.getId());
         return updated;
     }
 
     private void ensureExists(long id) {
-        if (userStorage.findById(id).isEmpty()) {
+        if (!userStorage.existsById(id)) {
             log.warn("User not found: id={}", id);
             throw new NotFoundException("User with id=" + id + " not found.");
         }
     }
 
+    /**
+     * One probe for both users; the per-id checks only run to name the missing one.
+     */
+    private void ensureBothExist(long userId, long otherId) {
+        if (!userStorage.existAll(List.of(userId, otherId))) {
+            ensureExists(userId);
+            ensureExists(otherId);
+        }
+    }
+
     public void addFriend(long userId, long friendId) {
-        log.info("User {} adding friend {}", userId, friendId);
+        log.debug("User {} adding friend {}", userId, friendId);
         if (userId == friendId) {
             log.warn("Attempt to add oneself as friend: {}", userId);
             throw new ValidationException("Cannot add yourself as friend.");
         }
-        ensureExists(userId);
-        ensureExists(friendId);
+        ensureBothExist(userId, friendId);
         friendshipStorage.sendFriendRequest(userId, friendId);
-        log.info("User {} successfully sent friend request to {}", userId, friendId);
+        friendGraph.addFriend(userId, friendId);
+        log.debug("User {} successfully sent friend request to {}", userId, friendId);
     }
 
     public void removeFriend(long userId, long friendId) {
-        log.info("User {} removing friend {}", userId, friendId);
-        ensureExists(userId);
-        ensureExists(friendId);
+        log.debug("User {} removing friend {}", userId, friendId);
+        ensureBothExist(userId, friendId);
         friendshipStorage.removeFriend(userId, friendId);
-        log.info("User {} removed friend {}", userId, friendId);
+        friendGraph.removeFriend(userId, friendId);
+        log.debug("User {} removed friend {}", userId, friendId);
     }
 
     public List<User> getFriends(long userId) {
-        log.info("Fetching friends for user {}", userId);
+        log.debug("Fetching friends for user {}", userId);
         ensureExists(userId);
-        List<Long> ids = friendshipStorage.getFriends(userId);
-        List<User> friends = ids.stream().map(userStorage::findById).flatMap(Optional::stream).collect(Collectors.toList());
-        log.info("User {} has friends: {}", userId, ids);
+        List<User> friends = friendGraph.isEnabled()
+                ? usersByIds(friendGraph.friendsOf(userId))
+                : friendshipStorage.getFriendUsers(userId);
+        log.debug("User {} has {} friends", userId, friends.size());
         return friends;
     }
 
     public List<User> getCommonFriends(long userId, long otherId) {
-        log.info("Fetching common friends between {} and {}", userId, otherId);
-        ensureExists(userId);
-        ensureExists(otherId);
-
-        Set<Long> set1 = new HashSet<>(friendshipStorage.getFriends(userId));
-        Set<Long> set2 = new HashSet<>(friendshipStorage.getFriends(otherId));
-        set1.retainAll(set2);
-
-        List<User> common = set1.stream().map(userStorage::findById).flatMap(Optional::stream).collect(Collectors.toList());
-        log.info("Common friends of {} and {}: {}", userId, otherId, set1);
+        log.debug("Fetching common friends between {} and {}", userId, otherId);
+        ensureBothExist(userId, otherId);
+        List<User> common = friendGraph.isEnabled()
+                ? usersByIds(friendGraph.commonFriends(userId, otherId))
+                : friendshipStorage.getCommonFriendUsers(userId, otherId);
+        log.debug("Users {} and {} have {} common friends", userId, otherId, common.size());
         return common;
     }
 
+    public List<User> getFriendSuggestions(long userId, int limit) {
+        Paging.checkSize("limit", limit);
+        ensureExists(userId);
+        List<User> suggestions = friendGraph.isEnabled()
+                ? usersByIds(friendGraph.suggestions(userId, limit))
+                : friendshipStorage.getSuggestedFriendUsers(userId, limit);
+        log.debug("User {} has {} friend suggestions", userId, suggestions.size());
+        return suggestions;
+    }
+
     public List<User> getUsers() {
-        log.info("Fetching all users");
+        log.debug("Fetching all users");
         List<User> all = userStorage.getUsers();
-        log.info("Found {} users", all.size());
+        log.debug("Found {} users", all.size());
         return all;
     }
 
+    public List<User> getUsersPage(long afterId, int limit) {
+        Paging.checkSize("limit", limit);
+        return userStorage.getUsersPage(afterId, limit);
+    }
+
+    public void streamUsers(Consumer<User> consumer) {
+        log.debug("Streaming all users");
+        userStorage.streamUsers(consumer);
+    }
+
     public Optional<User> findById(long id) {
-        log.info("Looking up user id={}", id);
+        log.debug("Looking up user id={}", id);
         return userStorage.findById(id);
     }
 
     public void delete(long id) {
-        log.info("Deleting user id={}", id);
+        log.debug("Deleting user id={}", id);
         userStorage.delete(id);
+        friendGraph.removeUser(id);
+        likeMatrix.removeUser(id);
         log.info("Deleted user id={}", id);
     }
+
+    private List<User> usersByIds(int[] ids) {
+        return userStorage.findAllByIds(Arrays.stream(ids).asLongStream().boxed().toList());
+    }
 }
@@ -1,52 +1,111 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
+@Profile("!inmemory")
 public class FilmDbStorage implements FilmStorage {
+    public static final String FIND_PAGE_SQL = """
+            SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa
+              FROM films f
+             WHERE f.id > ?
+             ORDER BY f.id
+             LIMIT ?
+            """;
+    public static final String FIND_BY_ID_SQL = """
+            SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa
+              FROM films f
+             WHERE f.id = ?
+            """;
+    public static final String FIND_BY_IDS_SQL = """
+            SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa
+              FROM films f
+             WHERE f.id = ANY(?)
+            """;
+    public static final String EXISTS_BY_ID_SQL = "SELECT EXISTS (SELECT 1 FROM films WHERE id = ?)";
+    public static final String UPDATE_SQL = "UPDATE films SET name=?, description=?, release_date=?, duration=?, mpa=? WHERE id=?";
+    public static final String DELETE_SQL = "DELETE FROM films WHERE id=?";
+    public static final String DELETE_LIKES_SQL = "DELETE FROM likes WHERE film_id=?";
+    public static final String FIND_GENRE_IDS_SQL = "SELECT genre_id FROM film_genres WHERE film_id=?";
+    public static final String FIND_GENRES_BY_FILM_IDS_SQL = """
+            SELECT fg.film_id, fg.genre_id
+              FROM film_genres fg
+             WHERE fg.film_id = ANY(?)
+            """;
+    public static final String DELETE_GENRES_SQL = "DELETE FROM film_genres WHERE film_id=?";
+    public static final String DELETE_GENRE_SQL = "DELETE FROM film_genres WHERE film_id=? AND genre_id=?";
+
     private final JdbcTemplate jdbcTemplate;
-    private final GenreStorage genreStorage;
+    private final DictionaryCache dictionary;
+    private final FilmRowMapper filmRowMapper;
+    private final int fetchSize;
 
-    public FilmDbStorage(JdbcTemplate jdbcTemplate, GenreStorage genreStorage) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, DictionaryCache dictionary, @Value("${filmorate.jdbc.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
-        this.genreStorage = genreStorage;
+        this.dictionary = dictionary;
+        this.filmRowMapper = new FilmRowMapper(dictionary);
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public List<Film> getFilms() {
         String sql = """
-                SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa, m.rating AS rating
+                SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa
                   FROM films f
-                  LEFT JOIN mpa_rating m ON f.mpa = m.id
                 """;
-        List<Film> films = jdbcTemplate.query(sql, new FilmRowMapper());
+        List<Film> films = jdbcTemplate.query(sql, filmRowMapper);
+        loadGenresForFilms(films);
+        return films;
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        List<Film> films = jdbcTemplate.query(FIND_PAGE_SQL, filmRowMapper, afterId, limit);
         loadGenresForFilms(films);
         return films;
     }
 
+    /**
+     * Walks the table in keyset pages of fetch-size films. A page and its genres are
+     * read before the consumer sees any of it, so no connection stays checked out
+     * while the consumer works (a slow HTTP client, for one).
+     */
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        long afterId = 0;
+        List<Film> page;
+        do {
+            page = getFilmsPage(afterId, fetchSize);
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == fetchSize);
+    }
+
     @Override
     public Optional<Film> findById(long id) {
-        String sql = """
-                SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa, m.rating AS rating
-                  FROM films f
-                  LEFT JOIN mpa_rating m ON f.mpa = m.id
-                 WHERE f.id = ?
-                """;
-        Optional<Film> maybe = jdbcTemplate.query(sql, new FilmRowMapper(), id).stream().findFirst();
+        Optional<Film> maybe = jdbcTemplate.query(FIND_BY_ID_SQL, filmRowMapper, id).stream().findFirst();
         if (maybe.isPresent()) {
             loadGenresForFilms(List.of(maybe.get()));
         }
@@ -54,6 +113,25 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    public boolean existsById(long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_BY_ID_SQL, Boolean.class, id));
+    }
+
+    @Override
+    public List<Film> findAllByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Film> byId = new HashMap<>();
+        jdbcTemplate.query(FIND_BY_IDS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", ids.toArray())), filmRowMapper)
+                .forEach(f -> byId.put(f.getId(), f));
+        List<Film> films = ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+        loadGenresForFilms(films);
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film create(Film film) {
         String sql = "INSERT INTO films (name, description, release_date, duration, mpa) VALUES (?, ?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
@@ -68,80 +146,114 @@ public class FilmDbStorage implements FilmStorage {
         }, keyHolder);
         long newId = Objects.requireNonNull(keyHolder.getKey()).longValue();
         film.setId(newId);
-        saveGenres(film);
+        saveGenres(newId, Collections.emptySet(), genreIds(film));
         return findById(newId).get();
     }
 
     @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(conn -> conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Film film = films.get(i);
+                ps.setString(1, film.getName());
+                ps.setString(2, film.getDescription());
+                ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                ps.setLong(4, film.getDuration());
+                ps.setLong(5, film.getMpa().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return films.size();
+            }
+        }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> genreRows = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            for (Integer genreId : genreIds(film)) {
+                genreRows.add(new Object[]{film.getId(), genreId});
+            }
+        }
+        if (!genreRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genreRows);
+        }
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film update(Film film) {
-        String sql = "UPDATE films SET name=?, description=?, release_date=?, duration=?, mpa=? WHERE id=?";
-        int rows = jdbcTemplate.update(sql, film.getName(), film.getDescription(), Date.valueOf(film.getReleaseDate()), film.getDuration(), film.getMpa().getId(), film.getId());
+        int rows = jdbcTemplate.update(UPDATE_SQL, film.getName(), film.getDescription(), Date.valueOf(film.getReleaseDate()), film.getDuration(), film.getMpa().getId(), film.getId());
         if (rows == 0) {
             throw new NotFoundException("Фильм с id=" + film.getId() + " не найден.");
         }
-        saveGenres(film);
+        Set<Integer> stored = new HashSet<>(jdbcTemplate.queryForList(FIND_GENRE_IDS_SQL, Integer.class, film.getId()));
+        saveGenres(film.getId(), stored, genreIds(film));
         return findById(film.getId()).get();
     }
 
     @Override
     public void delete(long id) {
-        jdbcTemplate.update("DELETE FROM film_genres WHERE film_id=?", id);
-        jdbcTemplate.update("DELETE FROM likes WHERE film_id=?", id);
-        jdbcTemplate.update("DELETE FROM films WHERE id=?", id);
+        jdbcTemplate.update(DELETE_GENRES_SQL, id);
+        jdbcTemplate.update(DELETE_LIKES_SQL, id);
+        jdbcTemplate.update(DELETE_SQL, id);
     }
 
-    private void saveGenres(Film film) {
-        long filmId = film.getId();
-        jdbcTemplate.update("DELETE FROM film_genres WHERE film_id=?", filmId);
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            for (Genre g : film.getGenres()) {
-                jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", filmId, g.getId());
-            }
+    private void saveGenres(long filmId, Set<Integer> stored, Set<Integer> wanted) {
+        List<Integer> removed = stored.stream().filter(id -> !wanted.contains(id)).collect(Collectors.toList());
+        List<Integer> added = wanted.stream().filter(id -> !stored.contains(id)).collect(Collectors.toList());
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_GENRE_SQL, removed, removed.size(), (ps, genreId) -> {
+                ps.setLong(1, filmId);
+                ps.setInt(2, genreId);
+            });
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", added, added.size(), (ps, genreId) -> {
+                ps.setLong(1, filmId);
+                ps.setInt(2, genreId);
+            });
         }
     }
 
+    private Set<Integer> genreIds(Film film) {
+        if (film.getGenres() == null) {
+            return Collections.emptySet();
+        }
+        return film.getGenres().stream().map(Genre::getId).collect(Collectors.toCollection(TreeSet::new));
+    }
+
     private void loadGenresForFilms(List<Film> films) {
         if (films.isEmpty()) {
             return;
         }
         List<Long> filmIds = films.stream().map(Film::getId).collect(Collectors.toList());
-        String inSql = filmIds.stream().map(id -> "?").collect(Collectors.joining(","));
-        String sql = String.format("""
-                SELECT fg.film_id, g.id AS genre_id, g.name
-                  FROM film_genres fg
-                  JOIN genres g ON fg.genre_id = g.id
-                 WHERE fg.film_id IN (%s)
-                """, inSql);
-        List<Object> params = new ArrayList<>(filmIds);
-        List<GenreRow> rows = jdbcTemplate.query(sql, rs -> {
-            List<GenreRow> result = new ArrayList<>();
-            while (rs.next()) {
-                result.add(new GenreRow(rs.getLong("film_id"), rs.getInt("genre_id"), rs.getString("name")));
-            }
-            return result;
-        }, params.toArray());
-        Map<Long, List<GenreRow>> byFilm = rows.stream().collect(Collectors.groupingBy(r -> r.filmId));
+        Map<Long, List<Integer>> byFilm = new HashMap<>();
+        jdbcTemplate.query(FIND_GENRES_BY_FILM_IDS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", filmIds.toArray())), rs -> {
+            byFilm.computeIfAbsent(rs.getLong("film_id"), k -> new ArrayList<>()).add(rs.getInt("genre_id"));
+        });
         for (Film f : films) {
-            List<GenreRow> grs = byFilm.getOrDefault(f.getId(), Collections.emptyList());
-            LinkedHashSet<Genre> set = grs.stream().sorted(Comparator.comparingInt(r -> r.genreId)).map(r -> {
-                Genre g = new Genre();
-                g.setId(r.genreId);
-                g.setName(r.name);
-                return g;
-            }).collect(Collectors.toCollection(LinkedHashSet::new));
+            List<Integer> genreIds = byFilm.getOrDefault(f.getId(), Collections.emptyList());
+            LinkedHashSet<Genre> set = genreIds.stream().sorted().map(this::resolveGenre)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
             f.setGenres(set);
         }
     }
 
-    private static class GenreRow {
-        final long filmId;
-        final int genreId;
-        final String name;
-
-        GenreRow(long filmId, int genreId, String name) {
-            this.filmId = filmId;
-            this.genreId = genreId;
-            this.name = name;
-        }
+    private Genre resolveGenre(int genreId) {
+        return dictionary.findGenre(genreId).orElseGet(() -> {
+            Genre g = new Genre();
+            g.setId(genreId);
+            return g;
+        });
     }
 }
@@ -4,15 +4,26 @@ import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     Optional<Film> findById(long id);
 
+    boolean existsById(long id);
+
+    List<Film> findAllByIds(List<Long> ids);
+
     List<Film> getFilms();
 
+    List<Film> getFilmsPage(long afterId, int limit);
+
+    void streamFilms(Consumer<Film> consumer);
+
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film update(Film film);
 
     void delete(long id);
@@ -1,54 +1,147 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * Film table for the inmemory profile. Rows are immutable and kept in a skip list
+ * ordered by id, so keyset pages are a tail view; every read builds a fresh
+ * {@link Film} with MPA and genres resolved from the dictionary, as the row mapper does.
+ */
 @Slf4j
 @Component
+@Profile("inmemory")
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Long, Film> films = new HashMap<>();
-    private long lastId = 0;
+    private final ConcurrentNavigableMap<Long, Row> films = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final DictionaryCache dictionary;
 
-    private long getNextId() {
-        return ++lastId;
+    public InMemoryFilmStorage(DictionaryCache dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Live, weakly consistent view of the stored film ids in ascending order.
+     */
+    public NavigableSet<Long> ids() {
+        return Collections.unmodifiableNavigableSet(films.navigableKeySet());
     }
 
     @Override
     public List<Film> getFilms() {
-        return new ArrayList<>(films.values());
+        return films.values().stream().map(this::toFilm).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return films.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(this::toFilm)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        films.values().forEach(row -> consumer.accept(toFilm(row)));
     }
 
     @Override
     public Optional<Film> findById(long id) {
-        return Optional.ofNullable(films.get(id));
+        return Optional.ofNullable(films.get(id)).map(this::toFilm);
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public List<Film> findAllByIds(List<Long> ids) {
+        List<Film> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Row row = films.get(id);
+            if (row != null) {
+                result.add(toFilm(row));
+            }
+        }
+        return result;
     }
 
     @Override
     public Film create(Film film) {
-        film.setId(getNextId());
-        films.put(film.getId(), film);
-        return film;
+        Row row = Row.of(lastId.incrementAndGet(), film);
+        films.put(row.id(), row);
+        film.setId(row.id());
+        return toFilm(row);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        List<Film> created = new ArrayList<>(films.size());
+        for (Film film : films) {
+            created.add(create(film));
+        }
+        return created;
     }
 
     @Override
     public Film update(Film film) {
-        if (!films.containsKey(film.getId())) {
+        Row row = Row.of(film.getId(), film);
+        if (films.replace(film.getId(), row) == null) {
             throw new NotFoundException("Фильм с id = " + film.getId() + " не найден.");
         }
-        films.put(film.getId(), film);
-        log.info("Фильм обновлён: {}", film);
-        return film;
+        log.debug("Фильм с id = {} обновлён", film.getId());
+        return toFilm(row);
     }
 
     @Override
     public void delete(long id) {
-        if (!films.containsKey(id)) {
+        if (films.remove(id) == null) {
             throw new NotFoundException("Фильм с id = " + id + " не найден.");
         }
-        films.remove(id);
+    }
+
+    private Film toFilm(Row row) {
+        Film film = new Film();
+        film.setId(row.id());
+        film.setName(row.name());
+        film.setDescription(row.description());
+        film.setReleaseDate(row.releaseDate());
+        film.setDuration(row.duration());
+        film.setMpa(dictionary.findMpa(row.mpaId()).orElseGet(() -> new MpaRating(row.mpaId(), null)));
+        LinkedHashSet<Genre> genres = new LinkedHashSet<>();
+        for (int genreId : row.genreIds()) {
+            genres.add(dictionary.findGenre(genreId).orElseGet(() -> {
+                Genre g = new Genre();
+                g.setId(genreId);
+                return g;
+            }));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+
+    private record Row(long id, String name, String description, LocalDate releaseDate, long duration, int mpaId,
+                       int[] genreIds) {
+        static Row of(long id, Film film) {
+            int[] genreIds = film.getGenres() == null ? new int[0]
+                    : film.getGenres().stream().mapToInt(Genre::getId).distinct().sorted().toArray();
+            return new Row(id, film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration(),
+                    film.getMpa().getId(), genreIds);
+        }
     }
 }
@@ -1,14 +1,51 @@
 package ru.yandex.practicum.filmorate.storage.friendship;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
 
 import java.util.List;
+import java.util.function.BiConsumer;
 
 @Repository
+@Profile("!inmemory")
 public class FriendshipDbStorage implements FriendshipStorage {
+    public static final String ADD_SQL = "MERGE INTO friendships (user_id, friend_id) KEY(user_id, friend_id) VALUES (?, ?)";
+    public static final String DELETE_SQL = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
+    public static final String FRIEND_IDS_SQL = "SELECT friend_id FROM friendships WHERE user_id = ?";
+    public static final String FRIEND_USERS_SQL = """
+            SELECT u.id, u.email, u.login, u.name, u.birthday
+              FROM friendships f
+              JOIN users u ON u.id = f.friend_id
+             WHERE f.user_id = ?
+             ORDER BY u.id
+            """;
+    public static final String COMMON_FRIEND_USERS_SQL = """
+            SELECT u.id, u.email, u.login, u.name, u.birthday
+              FROM friendships f1
+              JOIN friendships f2 ON f2.friend_id = f1.friend_id AND f2.user_id = ?
+              JOIN users u ON u.id = f1.friend_id
+             WHERE f1.user_id = ?
+             ORDER BY u.id
+            """;
+    public static final String SUGGESTED_FRIEND_USERS_SQL = """
+            SELECT u.id, u.email, u.login, u.name, u.birthday
+              FROM friendships f1
+              JOIN friendships f2 ON f2.user_id = f1.friend_id
+              JOIN users u ON u.id = f2.friend_id
+             WHERE f1.user_id = ?
+               AND f2.friend_id <> ?
+               AND f2.friend_id NOT IN (SELECT friend_id FROM friendships WHERE user_id = ?)
+             GROUP BY u.id, u.email, u.login, u.name, u.birthday
+             ORDER BY COUNT(*) DESC, u.id
+             LIMIT ?
+            """;
+    public static final String FOR_EACH_SQL = "SELECT user_id, friend_id FROM friendships ORDER BY user_id, friend_id";
 
     private final JdbcTemplate jdbcTemplate;
+    private final UserRowMapper userRowMapper = new UserRowMapper();
 
     public FriendshipDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -16,19 +53,38 @@ public class FriendshipDbStorage implements FriendshipStorage {
 
     @Override
     public void sendFriendRequest(long userId, long friendId) {
-        String sql = "MERGE INTO friendships (user_id, friend_id) " + "KEY(user_id, friend_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, userId, friendId);
+        jdbcTemplate.update(ADD_SQL, userId, friendId);
     }
 
     @Override
     public void removeFriend(long userId, long friendId) {
-        String sql = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId);
+        jdbcTemplate.update(DELETE_SQL, userId, friendId);
     }
 
     @Override
     public List<Long> getFriends(long userId) {
-        String sql = "SELECT friend_id FROM friendships WHERE user_id = ?";
-        return jdbcTemplate.queryForList(sql, Long.class, userId);
+        return jdbcTemplate.queryForList(FRIEND_IDS_SQL, Long.class, userId);
+    }
+
+    @Override
+    public List<User> getFriendUsers(long userId) {
+        return jdbcTemplate.query(FRIEND_USERS_SQL, userRowMapper, userId);
+    }
+
+    @Override
+    public List<User> getCommonFriendUsers(long userId, long otherId) {
+        return jdbcTemplate.query(COMMON_FRIEND_USERS_SQL, userRowMapper, otherId, userId);
+    }
+
+    @Override
+    public List<User> getSuggestedFriendUsers(long userId, int limit) {
+        return jdbcTemplate.query(SUGGESTED_FRIEND_USERS_SQL, userRowMapper, userId, userId, userId, limit);
+    }
+
+    @Override
+    public void forEachFriendship(BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query(FOR_EACH_SQL, rs -> {
+            consumer.accept(rs.getLong("user_id"), rs.getLong("friend_id"));
+        });
     }
 }
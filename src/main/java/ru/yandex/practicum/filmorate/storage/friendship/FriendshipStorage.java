@@ -1,6 +1,9 @@
 package ru.yandex.practicum.filmorate.storage.friendship;
 
+import ru.yandex.practicum.filmorate.model.User;
+
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public interface FriendshipStorage {
     void sendFriendRequest(long userId, long friendId);
@@ -8,4 +11,12 @@ public interface FriendshipStorage {
     void removeFriend(long userId, long friendId);
 
     List<Long> getFriends(long userId);
-}
\ No newline at end of file
+
+    List<User> getFriendUsers(long userId);
+
+    List<User> getCommonFriendUsers(long userId, long otherId);
+
+    List<User> getSuggestedFriendUsers(long userId, int limit);
+
+    void forEachFriendship(BiConsumer<Long, Long> consumer);
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Friendships for the inmemory profile: a sorted concurrent set of friend ids per
+ * user, so results come out in id order like the SQL queries. The database drops
+ * the edges of a deleted user through ON DELETE CASCADE; here they are pruned the
+ * next time they are read, which is safe because user ids are never reused.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryFriendshipStorage implements FriendshipStorage {
+    private final ConcurrentNavigableMap<Long, NavigableSet<Long>> friends = new ConcurrentSkipListMap<>();
+    private final UserStorage userStorage;
+
+    public InMemoryFriendshipStorage(UserStorage userStorage) {
+        this.userStorage = userStorage;
+    }
+
+    @Override
+    public void sendFriendRequest(long userId, long friendId) {
+        friends.computeIfAbsent(userId, id -> new ConcurrentSkipListSet<>()).add(friendId);
+    }
+
+    @Override
+    public void removeFriend(long userId, long friendId) {
+        NavigableSet<Long> own = friends.get(userId);
+        if (own != null) {
+            own.remove(friendId);
+        }
+    }
+
+    @Override
+    public List<Long> getFriends(long userId) {
+        return new ArrayList<>(liveFriends(userId));
+    }
+
+    @Override
+    public List<User> getFriendUsers(long userId) {
+        return userStorage.findAllByIds(getFriends(userId));
+    }
+
+    @Override
+    public List<User> getCommonFriendUsers(long userId, long otherId) {
+        NavigableSet<Long> other = liveFriends(otherId);
+        List<Long> common = liveFriends(userId).stream().filter(other::contains).toList();
+        return userStorage.findAllByIds(common);
+    }
+
+    @Override
+    public List<User> getSuggestedFriendUsers(long userId, int limit) {
+        NavigableSet<Long> own = liveFriends(userId);
+        Map<Long, Integer> mutual = new HashMap<>();
+        for (Long friendId : own) {
+            for (Long candidate : liveFriends(friendId)) {
+                if (candidate != userId && !own.contains(candidate)) {
+                    mutual.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        List<Long> top = mutual.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        return userStorage.findAllByIds(top);
+    }
+
+    @Override
+    public void forEachFriendship(BiConsumer<Long, Long> consumer) {
+        for (Long userId : friends.keySet()) {
+            liveFriends(userId).forEach(friendId -> consumer.accept(userId, friendId));
+        }
+    }
+
+    private NavigableSet<Long> liveFriends(long userId) {
+        if (!userStorage.existsById(userId)) {
+            friends.remove(userId);
+            return new ConcurrentSkipListSet<>();
+        }
+        NavigableSet<Long> own = friends.getOrDefault(userId, new ConcurrentSkipListSet<>());
+        own.removeIf(friendId -> !userStorage.existsById(friendId));
+        return own;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.storage.genre;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Genre;
@@ -9,7 +10,10 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Profile("!inmemory")
 public class GenreDbStorage implements GenreStorage {
+    public static final String FIND_BY_ID_SQL = "SELECT id, name FROM genres WHERE id = ?";
+    public static final String FIND_BY_FILM_SQL = "SELECT g.id, g.name FROM genres g JOIN film_genres fg ON g.id = fg.genre_id WHERE fg.film_id = ?";
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -24,13 +28,12 @@ public class GenreDbStorage implements GenreStorage {
 
     @Override
     public Optional<Genre> findById(int id) {
-        return jdbcTemplate.query("SELECT id, name FROM genres WHERE id = ?", new GenreRowMapper(), id).stream().findFirst();
+        return jdbcTemplate.query(FIND_BY_ID_SQL, new GenreRowMapper(), id).stream().findFirst();
     }
 
     @Override
     public List<Genre> getGenresByFilmId(long filmId) {
-        String sql = "SELECT g.id, g.name FROM genres g " + "JOIN film_genres fg ON g.id = fg.genre_id " + "WHERE fg.film_id = ?";
-        return jdbcTemplate.query(sql, new GenreRowMapper(), filmId);
+        return jdbcTemplate.query(FIND_BY_FILM_SQL, new GenreRowMapper(), filmId);
     }
 
 
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Genres for the inmemory profile, the same rows data.sql inserts. The film
+ * storage is injected lazily because it resolves genres through the dictionary
+ * cache, which is itself loaded from this storage.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryGenreStorage implements GenreStorage {
+    private static final List<String> NAMES = List.of("Комедия", "Драма", "Мультфильм", "Триллер", "Документальный", "Боевик");
+
+    private final FilmStorage filmStorage;
+
+    public InMemoryGenreStorage(@Lazy FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @Override
+    public List<Genre> getAll() {
+        return IntStream.rangeClosed(1, NAMES.size()).mapToObj(this::genre).toList();
+    }
+
+    @Override
+    public Optional<Genre> findById(int id) {
+        return id >= 1 && id <= NAMES.size() ? Optional.of(genre(id)) : Optional.empty();
+    }
+
+    @Override
+    public List<Genre> getGenresByFilmId(long filmId) {
+        return filmStorage.findById(filmId).map(film -> List.copyOf(film.getGenres())).orElse(List.of());
+    }
+
+    private Genre genre(int id) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        genre.setName(NAMES.get(id - 1));
+        return genre;
+    }
+}
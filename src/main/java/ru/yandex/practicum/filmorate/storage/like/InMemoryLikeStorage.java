@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Likes for the inmemory profile: a concurrent map of user id to like time per
+ * film. The like count of a film is the size of its map, so there is no
+ * denormalized counter that could drift and {@link #recomputeLikeCounts()} has
+ * nothing to repair.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryLikeStorage implements LikeStorage {
+    private final Map<Long, Map<Long, Instant>> usersByFilm = new ConcurrentHashMap<>();
+    private final InMemoryFilmStorage filmStorage;
+
+    public InMemoryLikeStorage(InMemoryFilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return usersByFilm.computeIfAbsent(filmId, id -> new ConcurrentHashMap<>()).putIfAbsent(userId, Instant.now()) == null;
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        Map<Long, Instant> users = usersByFilm.get(filmId);
+        return users != null && users.remove(userId) != null;
+    }
+
+    @Override
+    public int applyLikes(List<LikeChange> changes) {
+        int changed = 0;
+        for (LikeChange change : changes) {
+            boolean applied = change.liked()
+                    ? addLike(change.filmId(), change.userId())
+                    : removeLike(change.filmId(), change.userId());
+            if (applied) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public int getLikesCount(long filmId) {
+        Map<Long, Instant> users = usersByFilm.get(filmId);
+        return users == null ? 0 : users.size();
+    }
+
+    @Override
+    public List<Film> getTopLikedFilms(int limit) {
+        List<Long> top = filmStorage.ids().stream()
+                .sorted(Comparator.comparingInt(this::getLikesCount).reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+        return filmStorage.findAllByIds(top);
+    }
+
+    @Override
+    public void removeAllLikesByFilmId(long filmId) {
+        usersByFilm.remove(filmId);
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Long filmId : filmStorage.ids()) {
+            counts.put(filmId, getLikesCount(filmId));
+        }
+        return counts;
+    }
+
+    @Override
+    public int recomputeLikeCounts() {
+        return 0;
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Long, Long> consumer) {
+        NavigableMap<Long, NavigableSet<Long>> filmsByUser = new TreeMap<>();
+        usersByFilm.forEach((filmId, users) -> {
+            for (Long userId : users.keySet()) {
+                filmsByUser.computeIfAbsent(userId, id -> new TreeSet<>()).add(filmId);
+            }
+        });
+        filmsByUser.forEach((userId, films) -> films.forEach(filmId -> consumer.accept(filmId, userId)));
+    }
+
+    @Override
+    public void forEachLikeSince(Instant since, Consumer<LikeTime> consumer) {
+        List<LikeTime> recent = new ArrayList<>();
+        usersByFilm.forEach((filmId, users) -> users.forEach((userId, likedAt) -> {
+            if (!likedAt.isBefore(since)) {
+                recent.add(new LikeTime(filmId, userId, likedAt));
+            }
+        }));
+        recent.sort(Comparator.comparing(LikeTime::likedAt));
+        recent.forEach(consumer);
+    }
+}
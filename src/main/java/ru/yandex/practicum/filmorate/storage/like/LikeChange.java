@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+/**
+ * Desired state of one (film, user) like: {@code liked} adds it, otherwise it is removed.
+ */
+public record LikeChange(long filmId, long userId, boolean liked) {
+}
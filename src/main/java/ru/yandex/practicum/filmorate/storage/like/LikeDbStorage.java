@@ -1,76 +1,150 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Repository
+@Profile("!inmemory")
 public class LikeDbStorage implements LikeStorage {
+    public static final String LOCK_FILM_SQL = "SELECT id FROM films WHERE id = ? FOR UPDATE";
+    public static final String ADD_SQL = """
+            MERGE INTO likes l
+            USING (SELECT CAST(? AS INTEGER) AS film_id, CAST(? AS INTEGER) AS user_id) v
+               ON l.film_id = v.film_id AND l.user_id = v.user_id
+             WHEN NOT MATCHED THEN INSERT (film_id, user_id) VALUES (v.film_id, v.user_id)
+            """;
+    public static final String DELETE_SQL = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+    public static final String DELETE_BY_FILM_SQL = "DELETE FROM likes WHERE film_id = ?";
+    public static final String INCREMENT_COUNT_SQL = "UPDATE films SET like_count = like_count + 1 WHERE id = ?";
+    public static final String DECREMENT_COUNT_SQL = "UPDATE films SET like_count = like_count - 1 WHERE id = ? AND like_count > 0";
+    public static final String ADJUST_COUNT_SQL = "UPDATE films SET like_count = GREATEST(like_count + ?, 0) WHERE id = ?";
+    public static final String RESET_COUNT_SQL = "UPDATE films SET like_count = 0 WHERE id = ?";
+    public static final String COUNT_SQL = "SELECT like_count FROM films WHERE id = ?";
+    public static final String TOP_SQL = """
+            SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa, f.like_count
+            FROM films f
+            ORDER BY f.like_count DESC, f.id ASC
+            LIMIT ?
+            """;
+    public static final String TOP_GENRES_SQL = """
+            SELECT fg.film_id, fg.genre_id
+            FROM film_genres fg
+            WHERE fg.film_id = ANY(?)
+            ORDER BY fg.film_id, fg.genre_id
+            """;
+    public static final String FOR_EACH_SQL = "SELECT film_id, user_id FROM likes ORDER BY user_id, film_id";
+    public static final String SINCE_SQL = "SELECT film_id, user_id, created_at FROM likes WHERE created_at >= ? ORDER BY created_at";
+
     private final JdbcTemplate jdbc;
-    private final GenreStorage genreStorage;
+    private final DictionaryCache dictionary;
 
-    public LikeDbStorage(JdbcTemplate jdbc, GenreStorage genreStorage) {
+    public LikeDbStorage(JdbcTemplate jdbc, DictionaryCache dictionary) {
         this.jdbc = jdbc;
-        this.genreStorage = genreStorage;
+        this.dictionary = dictionary;
     }
 
     @Override
-    public void addLike(long filmId, long userId) {
-        jdbc.update("MERGE INTO likes (film_id, user_id) KEY (film_id, user_id) VALUES (?, ?)", filmId, userId);
+    @Transactional
+    public boolean addLike(long filmId, long userId) {
+        // like_count is bumped under the film row lock anyway; taking it up front makes a
+        // concurrent PUT of the same like wait for the first one and then see its row
+        // instead of failing on the primary key
+        jdbc.queryForList(LOCK_FILM_SQL, Long.class, filmId);
+        if (jdbc.update(ADD_SQL, filmId, userId) == 0) {
+            return false;
+        }
+        jdbc.update(INCREMENT_COUNT_SQL, filmId);
+        return true;
     }
 
     @Override
-    public void removeLike(long filmId, long userId) {
-        jdbc.update("DELETE FROM likes WHERE film_id = ? AND user_id = ?", filmId, userId);
+    @Transactional
+    public boolean removeLike(long filmId, long userId) {
+        if (jdbc.update(DELETE_SQL, filmId, userId) == 0) {
+            return false;
+        }
+        jdbc.update(DECREMENT_COUNT_SQL, filmId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int applyLikes(List<LikeChange> changes) {
+        List<LikeChange> added = changes.stream().filter(LikeChange::liked).toList();
+        List<LikeChange> removed = changes.stream().filter(c -> !c.liked()).toList();
+        Map<Long, Integer> deltas = new HashMap<>();
+        int changed = 0;
+        if (!added.isEmpty()) {
+            int[][] counts = jdbc.batchUpdate(ADD_SQL, added, added.size(), (ps, c) -> {
+                ps.setLong(1, c.filmId());
+                ps.setLong(2, c.userId());
+            });
+            changed += collectDeltas(added, counts[0], 1, deltas);
+        }
+        if (!removed.isEmpty()) {
+            int[][] counts = jdbc.batchUpdate(DELETE_SQL, removed, removed.size(), (ps, c) -> {
+                ps.setLong(1, c.filmId());
+                ps.setLong(2, c.userId());
+            });
+            changed += collectDeltas(removed, counts[0], -1, deltas);
+        }
+        List<Object[]> updates = new ArrayList<>();
+        deltas.forEach((filmId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, filmId});
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbc.batchUpdate(ADJUST_COUNT_SQL, updates);
+        }
+        return changed;
+    }
+
+    private int collectDeltas(List<LikeChange> changes, int[] counts, int sign, Map<Long, Integer> deltas) {
+        int changed = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                deltas.merge(changes.get(i).filmId(), sign, Integer::sum);
+                changed++;
+            }
+        }
+        return changed;
     }
 
     @Override
     public int getLikesCount(long filmId) {
-        return jdbc.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+        return jdbc.query(COUNT_SQL, (rs, rowNum) -> rs.getInt("like_count"), filmId)
+                .stream().findFirst().orElse(0);
     }
 
     @Override
     public List<Film> getTopLikedFilms(int limit) {
-        String sql = """
-                SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa,
-                       m.rating AS rating, COUNT(l.user_id) AS like_count
-                FROM films f
-                LEFT JOIN likes l ON f.id = l.film_id
-                LEFT JOIN mpa_rating m ON f.mpa = m.id
-                GROUP BY f.id, f.name, f.description, f.release_date, f.duration, f.mpa, m.rating
-                ORDER BY like_count DESC, f.id ASC
-                LIMIT ?
-                """;
-        List<Film> films = jdbc.query(sql, new FilmRowMapper(), limit);
+        List<Film> films = jdbc.query(TOP_SQL, new FilmRowMapper(dictionary), limit);
         if (films.isEmpty()) return films;
-        String inSql = films.stream().map(f -> String.valueOf(f.getId())).collect(Collectors.joining(","));
-
-        String genreSql = """
-                SELECT fg.film_id, g.id, g.name
-                FROM film_genres fg
-                JOIN genres g ON fg.genre_id = g.id
-                WHERE fg.film_id IN (%s)
-                """.formatted(inSql);
-        List<Map<String, Object>> rows = jdbc.queryForList(genreSql);
+        Object[] filmIds = films.stream().map(Film::getId).toArray();
+
         Map<Long, LinkedHashSet<Genre>> genresByFilm = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            Long filmId = ((Number) row.get("film_id")).longValue();
-            Integer genreId = ((Number) row.get("id")).intValue();
-            String name = (String) row.get("name");
-            Genre genre = new Genre();
-            genre.setId(genreId);
-            genre.setName(name);
-            genresByFilm.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(genre);
-        }
+        jdbc.query(TOP_GENRES_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", filmIds)), rs -> {
+            long filmId = rs.getLong("film_id");
+            dictionary.findGenre(rs.getInt("genre_id"))
+                    .ifPresent(genre -> genresByFilm.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(genre));
+        });
         for (Film film : films) {
             LinkedHashSet<Genre> genres = genresByFilm.getOrDefault(film.getId(), new LinkedHashSet<>());
             film.setGenres(genres);
@@ -80,7 +154,42 @@ public class LikeDbStorage implements LikeStorage {
     }
 
     @Override
+    @Transactional
     public void removeAllLikesByFilmId(long filmId) {
-        jdbc.update("DELETE FROM likes WHERE film_id = ?", filmId);
+        jdbc.update(DELETE_BY_FILM_SQL, filmId);
+        jdbc.update(RESET_COUNT_SQL, filmId);
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbc.query("SELECT id, like_count FROM films", rs -> {
+            counts.put(rs.getLong("id"), rs.getInt("like_count"));
+        });
+        return counts;
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Long, Long> consumer) {
+        jdbc.query(FOR_EACH_SQL, rs -> {
+            consumer.accept(rs.getLong("film_id"), rs.getLong("user_id"));
+        });
+    }
+
+    @Override
+    public void forEachLikeSince(Instant since, Consumer<LikeTime> consumer) {
+        jdbc.query(SINCE_SQL, rs -> {
+            consumer.accept(new LikeTime(rs.getLong("film_id"), rs.getLong("user_id"), rs.getTimestamp("created_at").toInstant()));
+        }, Timestamp.from(since));
+    }
+
+    @Override
+    public int recomputeLikeCounts() {
+        String sql = """
+                UPDATE films f
+                SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+                WHERE like_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+                """;
+        return jdbc.update(sql);
     }
 }
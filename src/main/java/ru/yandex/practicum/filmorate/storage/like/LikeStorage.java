@@ -2,12 +2,22 @@ package ru.yandex.practicum.filmorate.storage.like;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface LikeStorage {
-    void addLike(long filmId, long userId);
+    boolean addLike(long filmId, long userId);
 
-    void removeLike(long filmId, long userId);
+    boolean removeLike(long filmId, long userId);
+
+    /**
+     * Applies the changes in JDBC batches and adjusts like_count by the rows that
+     * actually changed; returns that number.
+     */
+    int applyLikes(List<LikeChange> changes);
 
     int getLikesCount(long filmId);
 
@@ -15,4 +25,15 @@ public interface LikeStorage {
 
     void removeAllLikesByFilmId(long filmId);
 
+    Map<Long, Integer> getLikeCounts();
+
+    int recomputeLikeCounts();
+
+    void forEachLike(BiConsumer<Long, Long> consumer);
+
+    /**
+     * Passes every like made at or after {@code since}, oldest first.
+     */
+    void forEachLikeSince(Instant since, Consumer<LikeTime> consumer);
+
 }
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import java.time.Instant;
+
+/**
+ * When a user liked a film.
+ */
+public record LikeTime(long filmId, long userId, Instant likedAt) {
+}
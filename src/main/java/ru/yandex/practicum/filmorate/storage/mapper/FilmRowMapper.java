@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.mapper;
 
 import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
@@ -9,6 +10,12 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 
 public class FilmRowMapper implements RowMapper<Film> {
+    private final DictionaryCache dictionary;
+
+    public FilmRowMapper(DictionaryCache dictionary) {
+        this.dictionary = dictionary;
+    }
+
     @Override
     public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
         long id = rs.getLong("id");
@@ -17,7 +24,6 @@ public class FilmRowMapper implements RowMapper<Film> {
         LocalDate rd = rs.getDate("release_date").toLocalDate();
         long duration = rs.getLong("duration");
         Integer mpaId = rs.getObject("mpa", Integer.class);
-        String mpaRating = rs.getString("rating");
 
         Film film = new Film();
         film.setId(id);
@@ -27,7 +33,7 @@ public class FilmRowMapper implements RowMapper<Film> {
         film.setDuration(duration);
 
         if (mpaId != null) {
-            film.setMpa(new MpaRating(mpaId, mpaRating));
+            film.setMpa(dictionary.findMpa(mpaId).orElseGet(() -> new MpaRating(mpaId, null)));
         }
         return film;
     }
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.storage.mpa;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * MPA ratings for the inmemory profile, the same rows data.sql inserts.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryMpaStorage implements MpaStorage {
+    private static final List<String> RATINGS = List.of("G", "PG", "PG-13", "R", "NC-17");
+
+    @Override
+    public List<MpaRating> getAll() {
+        return IntStream.rangeClosed(1, RATINGS.size()).mapToObj(this::rating).toList();
+    }
+
+    @Override
+    public Optional<MpaRating> findById(int id) {
+        return id >= 1 && id <= RATINGS.size() ? Optional.of(rating(id)) : Optional.empty();
+    }
+
+    private MpaRating rating(int id) {
+        return new MpaRating(id, RATINGS.get(id - 1));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.storage.mpa;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.MpaRating;
@@ -9,7 +10,9 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Profile("!inmemory")
 public class MpaDbStorage implements MpaStorage {
+    public static final String FIND_BY_ID_SQL = "SELECT id, rating FROM mpa_rating WHERE id = ?";
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -24,6 +27,6 @@ public class MpaDbStorage implements MpaStorage {
 
     @Override
     public Optional<MpaRating> findById(int id) {
-        return jdbcTemplate.query("SELECT id, rating FROM mpa_rating WHERE id = ?", new MpaRowMapper(), id).stream().findFirst();
+        return jdbcTemplate.query(FIND_BY_ID_SQL, new MpaRowMapper(), id).stream().findFirst();
     }
 }
@@ -1,55 +1,108 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * User table for the inmemory profile: immutable rows in a skip list ordered by id,
+ * copied into a fresh {@link User} on every read.
+ */
 @Slf4j
 @Component
+@Profile("inmemory")
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
-    private long lastId = 0;
+    private final ConcurrentNavigableMap<Long, Row> users = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastId = new AtomicLong();
 
-    private long getNextId() {
-        return ++lastId;
+    @Override
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(users.get(id)).map(Row::toUser);
     }
 
     @Override
-    public Optional<User> findById(long id) {
-        return Optional.ofNullable(users.get(id));
+    public boolean existsById(long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public boolean existAll(Collection<Long> ids) {
+        return users.keySet().containsAll(ids);
+    }
+
+    @Override
+    public List<User> findAllByIds(List<Long> ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Row row = users.get(id);
+            if (row != null) {
+                result.add(row.toUser());
+            }
+        }
+        return result;
     }
 
     @Override
     public List<User> getUsers() {
-        return new ArrayList<>(users.values());
+        return users.values().stream().map(Row::toUser).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(Row::toUser)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        users.values().forEach(row -> consumer.accept(row.toUser()));
     }
 
     @Override
     public User create(User user) {
-        user.setId(getNextId());
-        users.put(user.getId(), user);
-        log.info("Пользователь создан: {}", user);
-        return user;
+        Row row = Row.of(lastId.incrementAndGet(), user);
+        users.put(row.id(), row);
+        user.setId(row.id());
+        log.debug("Пользователь создан: id = {}", user.getId());
+        return row.toUser();
     }
 
     @Override
     public User update(User user) {
-        if (!users.containsKey(user.getId())) {
+        Row row = Row.of(user.getId(), user);
+        if (users.replace(user.getId(), row) == null) {
             throw new NotFoundException("Пользователь с id = " + user.getId() + " не найден.");
         }
-        users.put(user.getId(), user);
-        log.info("Пользователь с id = {} обновлён: {}", user.getId(), user);
-        return user;
+        log.debug("Пользователь с id = {} обновлён", user.getId());
+        return row.toUser();
     }
 
     @Override
     public void delete(long id) {
-        if (!users.containsKey(id)) {
+        if (users.remove(id) == null) {
             throw new NotFoundException("Пользователь с id = " + id + " не найден.");
         }
-        users.remove(id);
+    }
+
+    private record Row(long id, String email, String login, String name, LocalDate birthday) {
+        static Row of(long id, User user) {
+            return new Row(id, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
+        }
+
+        User toUser() {
+            return new User(id, email, login, name, birthday);
+        }
     }
 }
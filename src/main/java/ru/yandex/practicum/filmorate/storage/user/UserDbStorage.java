@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -10,27 +12,100 @@ import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
+@Profile("!inmemory")
 public class UserDbStorage implements UserStorage {
+    public static final String FIND_PAGE_SQL = "SELECT id, email, login, name, birthday FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    public static final String FIND_BY_ID_SQL = "SELECT id, email, login, name, birthday FROM users WHERE id = ?";
+    public static final String FIND_BY_IDS_SQL = "SELECT id, email, login, name, birthday FROM users WHERE id = ANY(?)";
+    public static final String EXISTS_BY_ID_SQL = "SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)";
+    public static final String COUNT_BY_IDS_SQL = "SELECT COUNT(*) FROM users WHERE id = ANY(?)";
+    public static final String UPDATE_SQL = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
+    public static final String DELETE_SQL = "DELETE FROM users WHERE id = ?";
 
     private final JdbcTemplate jdbcTemplate;
+    private final UserRowMapper userRowMapper = new UserRowMapper();
+    private final int fetchSize;
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate, @Value("${filmorate.jdbc.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public List<User> getUsers() {
-        return jdbcTemplate.query("SELECT id, email, login, name, birthday FROM users", new UserRowMapper());
+        return jdbcTemplate.query("SELECT id, email, login, name, birthday FROM users", userRowMapper);
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        return jdbcTemplate.query(FIND_PAGE_SQL, userRowMapper, afterId, limit);
+    }
+
+    /**
+     * Walks the table in keyset pages of fetch-size users, like
+     * {@code FilmDbStorage.streamFilms}: each page is read and its connection
+     * returned before the consumer sees it.
+     */
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        long afterId = 0;
+        List<User> page;
+        do {
+            page = getUsersPage(afterId, fetchSize);
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == fetchSize);
     }
 
     @Override
     public Optional<User> findById(long id) {
-        return jdbcTemplate.query("SELECT id, email, login, name, birthday FROM users WHERE id = ?", new UserRowMapper(), id).stream().findFirst();
+        return jdbcTemplate.query(FIND_BY_ID_SQL, userRowMapper, id).stream().findFirst();
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_BY_ID_SQL, Boolean.class, id));
+    }
+
+    @Override
+    public boolean existAll(Collection<Long> ids) {
+        Set<Long> distinct = new HashSet<>(ids);
+        if (distinct.isEmpty()) {
+            return true;
+        }
+        Integer found = jdbcTemplate.query(COUNT_BY_IDS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", distinct.toArray())),
+                rs -> rs.next() ? rs.getInt(1) : 0);
+        return found != null && found == distinct.size();
+    }
+
+    @Override
+    public List<User> findAllByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, User> byId = new HashMap<>();
+        jdbcTemplate.query(FIND_BY_IDS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", ids.toArray())), userRowMapper)
+                .forEach(u -> byId.put(u.getId(), u));
+        List<User> users = new ArrayList<>(ids.size());
+        ids.stream().map(byId::get).filter(Objects::nonNull).forEach(users::add);
+        return users;
     }
 
     @Override
@@ -57,13 +132,13 @@ public class UserDbStorage implements UserStorage {
 
     @Override
     public User update(User user) {
-        int rows = jdbcTemplate.update("UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?", user.getEmail(), user.getLogin(), user.getName(), Date.valueOf(user.getBirthday()), user.getId());
+        int rows = jdbcTemplate.update(UPDATE_SQL, user.getEmail(), user.getLogin(), user.getName(), Date.valueOf(user.getBirthday()), user.getId());
         if (rows == 0) throw new NotFoundException("Пользователь с id=" + user.getId() + " не найден.");
         return user;
     }
 
     @Override
     public void delete(long id) {
-        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        jdbcTemplate.update(DELETE_SQL, id);
     }
 }
\ No newline at end of file
@@ -2,14 +2,26 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> getUsers();
 
+    List<User> getUsersPage(long afterId, int limit);
+
+    void streamUsers(Consumer<User> consumer);
+
     Optional<User> findById(long id);
 
+    boolean existsById(long id);
+
+    boolean existAll(Collection<Long> ids);
+
+    List<User> findAllByIds(List<Long> ids);
+
     User create(User user);
 
     User update(User user);
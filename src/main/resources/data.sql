@@ -1,19 +1,15 @@
-DELETE
-FROM mpa_rating;
-DELETE
-FROM genres;
-
-INSERT INTO mpa_rating (id, rating)
+-- справочники с явными id: MERGE не трогает строки, на которые уже ссылаются фильмы
+MERGE INTO mpa_rating (id, rating) KEY (id)
 VALUES (1, 'G'),
        (2, 'PG'),
        (3, 'PG-13'),
        (4, 'R'),
        (5, 'NC-17');
 
-INSERT INTO genres (name)
-VALUES ('Комедия'),
-       ('Драма'),
-       ('Мультфильм'),
-       ('Триллер'),
-       ('Документальный'),
-       ('Боевик');
+MERGE INTO genres (id, name) KEY (id)
+VALUES (1, 'Комедия'),
+       (2, 'Драма'),
+       (3, 'Мультфильм'),
+       (4, 'Триллер'),
+       (5, 'Документальный'),
+       (6, 'Боевик');
@@ -0,0 +1,22 @@
+-- выполняется при каждом старте после schema.sql: дополняет таблицы баз, созданных
+-- до денормализованного like_count и времени лайка, и создаёт индексы;
+-- повторный запуск ничего не меняет
+
+ALTER TABLE films ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+-- заполняем счётчик из likes; строки, где он уже верен, не переписываются
+UPDATE films f
+SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+WHERE like_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id);
+
+-- старые лайки получают время в прошлом, чтобы не попасть в окна трендов
+ALTER TABLE likes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP NOT NULL DEFAULT TIMESTAMP '1970-01-01 00:00:00';
+ALTER TABLE likes ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+
+-- денормализованный счётчик лайков: топ по популярности читается по индексу
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, id);
+
+-- вторичные индексы: обратные выборки по второй колонке составных ключей
+CREATE INDEX IF NOT EXISTS idx_likes_user ON likes (user_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_friendships_friend ON friendships (friend_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre ON film_genres (genre_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes (created_at);
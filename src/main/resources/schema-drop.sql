@@ -0,0 +1,8 @@
+-- только профиль по умолчанию: база пересоздаётся при каждом старте
+DROP TABLE IF EXISTS users CASCADE;
+DROP TABLE IF EXISTS friendships CASCADE;
+DROP TABLE IF EXISTS mpa_rating CASCADE;
+DROP TABLE IF EXISTS films CASCADE;
+DROP TABLE IF EXISTS genres CASCADE;
+DROP TABLE IF EXISTS film_genres CASCADE;
+DROP TABLE IF EXISTS likes CASCADE;
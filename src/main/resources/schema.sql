@@ -1,12 +1,7 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS friendships CASCADE;
-DROP TABLE IF EXISTS mpa_rating CASCADE;
-DROP TABLE IF EXISTS films CASCADE;
-DROP TABLE IF EXISTS genres CASCADE;
-DROP TABLE IF EXISTS film_genres CASCADE;
-DROP TABLE IF EXISTS likes CASCADE;
+-- таблицы в текущем виде; существующие не трогаются, их дополняет migrate.sql,
+-- который выполняется следом и создаёт индексы
 
-CREATE TABLE users
+CREATE TABLE IF NOT EXISTS users
 (
     id       INT PRIMARY KEY AUTO_INCREMENT,
     email    VARCHAR NOT NULL,
@@ -16,7 +11,7 @@ CREATE TABLE users
 );
 
 
-CREATE TABLE friendships
+CREATE TABLE IF NOT EXISTS friendships
 (
     user_id   INTEGER NOT NULL,
     friend_id INTEGER NOT NULL,
@@ -25,13 +20,13 @@ CREATE TABLE friendships
     FOREIGN KEY (friend_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
-CREATE TABLE mpa_rating
+CREATE TABLE IF NOT EXISTS mpa_rating
 (
     id     INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     rating VARCHAR(50) NOT NULL
 );
 
-CREATE TABLE films
+CREATE TABLE IF NOT EXISTS films
 (
     id           INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name         VARCHAR(255) NOT NULL,
@@ -39,16 +34,17 @@ CREATE TABLE films
     release_date DATE         NOT NULL,
     duration     INTEGER      NOT NULL,
     mpa          INTEGER      NOT NULL,
+    like_count   INTEGER      NOT NULL DEFAULT 0,
     FOREIGN KEY (mpa) REFERENCES mpa_rating (id)
 );
 
-CREATE TABLE genres
+CREATE TABLE IF NOT EXISTS genres
 (
     id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(100) NOT NULL
 );
 
-CREATE TABLE film_genres
+CREATE TABLE IF NOT EXISTS film_genres
 (
     film_id  INTEGER NOT NULL,
     genre_id INTEGER NOT NULL,
@@ -57,10 +53,11 @@ CREATE TABLE film_genres
     FOREIGN KEY (genre_id) REFERENCES genres (id)
 );
 
-CREATE TABLE likes
+CREATE TABLE IF NOT EXISTS likes
 (
     film_id INTEGER NOT NULL,
     user_id INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     PRIMARY KEY (film_id, user_id),
     FOREIGN KEY (film_id) REFERENCES films (id),
     FOREIGN KEY (user_id) REFERENCES users (id)
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({DictionaryCache.class, MpaDbStorage.class, GenreDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class DictionaryCacheIntegrationTest {
+
+    private final DictionaryCache dictionary;
+    private final JdbcTemplate jdbcTemplate;
+
+    @AfterTransaction
+    void reload() {
+        dictionary.invalidate();
+    }
+
+    @Test
+    void snapshot_matchesTables() {
+        assertThat(dictionary.getAllMpa()).extracting(MpaRating::getName).containsExactly("G", "PG", "PG-13", "R", "NC-17");
+        assertThat(dictionary.getAllGenres()).hasSize(6);
+        assertThat(dictionary.findMpa(3)).isPresent().get().hasFieldOrPropertyWithValue("name", "PG-13");
+        assertThat(dictionary.findGenre(4)).isPresent().get().hasFieldOrPropertyWithValue("name", "Триллер");
+    }
+
+    @Test
+    void find_unknownIds_empty() {
+        assertThat(dictionary.findMpa(0)).isEmpty();
+        assertThat(dictionary.findMpa(-1)).isEmpty();
+        assertThat(dictionary.findGenre(999)).isEmpty();
+    }
+
+    @Test
+    void invalidate_picksUpNewRows() {
+        jdbcTemplate.update("INSERT INTO genres (id, name) VALUES (7, 'Фантастика')");
+        assertThat(dictionary.findGenre(7)).isEmpty();
+        long version = dictionary.version();
+
+        dictionary.invalidate();
+
+        assertThat(dictionary.findGenre(7)).isPresent().get().extracting(Genre::getName).isEqualTo("Фантастика");
+        assertThat(dictionary.version()).isGreaterThan(version);
+    }
+}
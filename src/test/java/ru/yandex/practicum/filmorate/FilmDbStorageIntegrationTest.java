@@ -6,13 +6,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
 import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
 
+import javax.sql.DataSource;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -21,13 +27,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
-@Import({FilmDbStorage.class, MpaDbStorage.class, GenreDbStorage.class})
+@Import({FilmDbStorage.class, DictionaryCache.class, MpaDbStorage.class, GenreDbStorage.class})
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class FilmDbStorageIntegrationTest {
 
     private final FilmDbStorage filmStorage;
     private final MpaDbStorage mpaStorage;
     private final GenreDbStorage genreStorage;
+    private final DictionaryCache dictionary;
+    private final DataSource dataSource;
 
     @Test
     void getFilms_initialEmpty() {
@@ -56,6 +64,61 @@ class FilmDbStorageIntegrationTest {
                 });
     }
 
+    @Test
+    void createAll_assignsIdsAndStoresGenres() {
+        List<Film> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Film f = new Film();
+            f.setName("Batch " + i);
+            f.setDescription("D");
+            f.setReleaseDate(LocalDate.of(2001, 1, 1));
+            f.setDuration(90);
+            f.setMpa(mpaStorage.findById(2).get());
+            f.setGenres(Set.of(genreStorage.findById(i + 1).get()));
+            batch.add(f);
+        }
+
+        List<Film> created = filmStorage.createAll(batch);
+
+        assertThat(created).extracting(Film::getId).doesNotHaveDuplicates().allMatch(id -> id > 0);
+        assertThat(filmStorage.findById(created.get(2).getId())).isPresent().get().satisfies(f -> {
+            assertThat(f.getName()).isEqualTo("Batch 2");
+            assertThat(f.getGenres()).extracting(Genre::getId).containsExactly(3);
+        });
+    }
+
+    @Test
+    void getFilmsPage_andStreamFilms_walkInIdOrder() {
+        List<Film> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Film f = new Film();
+            f.setName("Page " + i);
+            f.setDescription("D");
+            f.setReleaseDate(LocalDate.of(2002, 1, 1));
+            f.setDuration(60);
+            f.setMpa(mpaStorage.findById(1).get());
+            f.setGenres(Set.of(genreStorage.findById(1).get()));
+            batch.add(f);
+        }
+        List<Long> ids = filmStorage.createAll(batch).stream().map(Film::getId).toList();
+
+        List<Film> first = filmStorage.getFilmsPage(0, 2);
+        List<Film> second = filmStorage.getFilmsPage(first.get(1).getId(), 2);
+        assertThat(first).extracting(Film::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(second).extracting(Film::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(second.get(0).getGenres()).extracting(Genre::getId).containsExactly(1);
+
+        List<Film> streamed = new ArrayList<>();
+        filmStorage.streamFilms(streamed::add);
+        assertThat(streamed).extracting(Film::getId).containsExactlyElementsOf(ids);
+        assertThat(streamed).allSatisfy(f -> assertThat(f.getGenres()).hasSize(1));
+
+        List<Film> paged = new ArrayList<>();
+        new FilmDbStorage(new JdbcTemplate(dataSource), dictionary, 2).streamFilms(paged::add);
+        assertThat(paged).extracting(Film::getId).containsExactlyElementsOf(ids);
+        assertThat(paged).allSatisfy(f -> assertThat(f.getGenres()).hasSize(1));
+    }
+
     @Test
     void update_changesDataAndGenres() {
         Film f = new Film();
@@ -74,6 +137,49 @@ class FilmDbStorageIntegrationTest {
         assertThat(updated.getGenres()).extracting(Genre::getId).containsExactly(4);
     }
 
+    @Test
+    void update_appliesGenreDiff() {
+        Film f = new Film();
+        f.setName("G");
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(40);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of(genreStorage.findById(1).get(), genreStorage.findById(2).get()));
+        Film c = filmStorage.create(f);
+
+        c.setGenres(Set.of(genreStorage.findById(2).get(), genreStorage.findById(3).get()));
+        assertThat(filmStorage.update(c).getGenres()).extracting(Genre::getId).containsExactly(2, 3);
+
+        assertThat(filmStorage.update(c).getGenres()).extracting(Genre::getId).containsExactly(2, 3);
+
+        c.setGenres(null);
+        assertThat(filmStorage.update(c).getGenres()).isEmpty();
+    }
+
+    @Test
+    void update_withUnchangedGenres_writesNoGenreRows() {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate(dataSource);
+        FilmDbStorage storage = new FilmDbStorage(jdbc, dictionary, 500);
+        Film f = new Film();
+        f.setName("N");
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(40);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of(genreStorage.findById(1).get(), genreStorage.findById(2).get()));
+        Film c = storage.create(f);
+        jdbc.writes.clear();
+
+        c.setName("N2");
+        storage.update(c);
+        assertThat(jdbc.writes).noneMatch(sql -> sql.contains("film_genres"));
+
+        c.setGenres(Set.of(genreStorage.findById(2).get(), genreStorage.findById(3).get()));
+        storage.update(c);
+        assertThat(jdbc.writes).filteredOn(sql -> sql.contains("film_genres")).hasSize(2);
+    }
+
     @Test
     void delete_removesFilm() {
         Film f = new Film();
@@ -84,7 +190,38 @@ class FilmDbStorageIntegrationTest {
         f.setMpa(mpaStorage.findById(1).get());
         f.setGenres(Set.of());
         Film c = filmStorage.create(f);
+        assertThat(filmStorage.existsById(c.getId())).isTrue();
         filmStorage.delete(c.getId());
         assertThat(filmStorage.findById(c.getId())).isEmpty();
+        assertThat(filmStorage.existsById(c.getId())).isFalse();
+    }
+
+    /**
+     * Records the SQL of every write so tests can assert which statements ran.
+     */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<String> writes = new ArrayList<>();
+
+        RecordingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            writes.add(sql);
+            return super.update(sql, args);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            writes.add(sql);
+            return super.batchUpdate(sql, batchArgs);
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize, ParameterizedPreparedStatementSetter<T> pss) {
+            writes.add(sql);
+            return super.batchUpdate(sql, batchArgs, batchSize, pss);
+        }
     }
 }
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "filmorate.import.chunk-size=2")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmImportServiceIntegrationTest {
+    private static final String VALID = "{\"name\":\"A\",\"description\":\"D\",\"releaseDate\":\"2000-01-01\",\"duration\":90,\"mpa\":{\"id\":1}}";
+
+    private final FilmImportService importService;
+    private final ObjectMapper objectMapper;
+
+    @SpyBean
+    private FilmService filmService;
+
+    @Test
+    void jsonArray_reportsEveryItemInInputOrder() throws IOException {
+        String body = "[" + String.join(",",
+                VALID,
+                "{\"name\":\"\",\"description\":\"D\",\"releaseDate\":\"2000-01-01\",\"duration\":90,\"mpa\":{\"id\":1}}",
+                VALID,
+                "{\"name\":\"B\",\"description\":\"D\",\"releaseDate\":\"2000-01-01\",\"duration\":\"long\",\"mpa\":{\"id\":1}}",
+                "{\"name\":\"C\",\"description\":\"D\",\"releaseDate\":\"2000-01-01\",\"duration\":90,\"mpa\":{\"id\":99}}",
+                VALID) + "]";
+
+        List<JsonNode> results = importFilms(body);
+
+        assertThat(results).extracting(r -> r.get("index").asInt()).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(results).extracting(r -> r.get("status").asText())
+                .containsExactly("CREATED", "REJECTED", "CREATED", "REJECTED", "REJECTED", "CREATED");
+        assertThat(results.get(1).get("error").asText()).isEqualTo("Name cannot be blank");
+        assertThat(results.get(3).get("error").asText()).startsWith("Invalid film");
+        assertThat(results.get(0).get("id").asLong()).isPositive();
+        // two items per chunk and every chunk holds one valid film
+        verify(filmService, times(3)).createAll(anyList());
+    }
+
+    @Test
+    void ndjson_isReadObjectByObject() throws IOException {
+        List<JsonNode> results = importFilms(VALID + "\n" + VALID + "\n" + VALID + "\n");
+
+        assertThat(results).extracting(r -> r.get("status").asText()).containsExactly("CREATED", "CREATED", "CREATED");
+        assertThat(results).extracting(r -> r.get("id").asLong()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void malformedInput_endsWithRejectionAndValidJson() throws IOException {
+        List<JsonNode> results = importFilms("[" + VALID + ", {\"name\": ");
+
+        assertThat(results).extracting(r -> r.get("status").asText()).containsExactly("CREATED", "REJECTED");
+        assertThat(results.get(1).get("index").asInt()).isEqualTo(1);
+        assertThat(results.get(1).get("error").asText()).startsWith("Malformed JSON");
+    }
+
+    @Test
+    void failedChunk_isRejectedItemByItem_andLaterChunksContinue() throws IOException {
+        doThrow(new DataIntegrityViolationException("boom")).doCallRealMethod().when(filmService).createAll(anyList());
+
+        List<JsonNode> results = importFilms("[" + String.join(",", VALID, VALID, VALID) + "]");
+
+        assertThat(results).extracting(r -> r.get("status").asText()).containsExactly("REJECTED", "REJECTED", "CREATED");
+        assertThat(results.get(0).get("error").asText()).startsWith("Insert failed");
+    }
+
+    private List<JsonNode> importFilms(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importFilms(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertThat(array.isArray()).isTrue();
+        return StreamSupport.stream(array.spliterator(), false).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.cache.FilmJsonCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({FilmJsonCache.class, DictionaryCache.class, FilmDbStorage.class, GenreDbStorage.class, MpaDbStorage.class, FilmJsonCacheIntegrationTest.Config.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmJsonCacheIntegrationTest {
+
+    private final FilmJsonCache cache;
+    private final DictionaryCache dictionary;
+    private final FilmDbStorage filmStorage;
+    private final MeterRegistry registry;
+
+    @Test
+    void get_servesBytesUntilInvalidated() {
+        Film film = filmStorage.create(film("Cached"));
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get(film.getId(), id -> {
+            loads.incrementAndGet();
+            return filmStorage.findById(id).get();
+        });
+        byte[] second = cache.get(film.getId(), id -> {
+            loads.incrementAndGet();
+            return filmStorage.findById(id).get();
+        });
+
+        assertThat(new String(first, StandardCharsets.UTF_8)).contains("\"name\":\"Cached\"", "\"releaseDate\":\"2000-01-01\"");
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(registry.get("cache.gets").tags("cache", "films.json", "result", "hit").functionCounter().count()).isEqualTo(1);
+
+        cache.invalidate(film.getId());
+        cache.get(film.getId(), id -> {
+            loads.incrementAndGet();
+            return filmStorage.findById(id).get();
+        });
+        assertThat(loads).hasValue(2);
+
+        dictionary.invalidate();
+        cache.get(film.getId(), id -> {
+            loads.incrementAndGet();
+            return filmStorage.findById(id).get();
+        });
+        assertThat(loads).hasValue(3);
+    }
+
+    private Film film(String name) {
+        Film f = new Film();
+        f.setName(name);
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.of(2000, 1, 1));
+        f.setDuration(5);
+        f.setMpa(dictionary.findMpa(1).get());
+        f.setGenres(Set.of());
+        return f;
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmLeaderboard.class, CatalogVersions.class, DictionaryCache.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, GenreDbStorage.class, MpaDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmLeaderboardIntegrationTest {
+
+    private final FilmLeaderboard leaderboard;
+    private final CatalogVersions versions;
+    private final LikeDbStorage likeStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final MpaDbStorage mpaStorage;
+
+    @BeforeEach
+    void reload() {
+        leaderboard.load();
+    }
+
+    @Test
+    void load_ordersByLikesThenId() {
+        User u1 = userStorage.create(new User(0, "u1@", "u1", "U1", LocalDate.now()));
+        User u2 = userStorage.create(new User(0, "u2@", "u2", "U2", LocalDate.now()));
+        Film f1 = filmStorage.create(film("A"));
+        Film f2 = filmStorage.create(film("B"));
+        Film f3 = filmStorage.create(film("C"));
+        likeStorage.addLike(f2.getId(), u1.getId());
+        likeStorage.addLike(f2.getId(), u2.getId());
+        likeStorage.addLike(f3.getId(), u1.getId());
+
+        leaderboard.load();
+
+        assertThat(leaderboard.top(3)).containsExactly(f2.getId(), f3.getId(), f1.getId());
+        assertThat(leaderboard.top(3)).containsExactlyElementsOf(likeStorage.getTopLikedFilms(3).stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void incrementalUpdates_matchDatabase() {
+        User u = userStorage.create(new User(0, "u@", "u", "U", LocalDate.now()));
+        Film f1 = filmStorage.create(film("A"));
+        Film f2 = filmStorage.create(film("B"));
+        leaderboard.addFilm(f1);
+        leaderboard.addFilm(f2);
+        assertThat(leaderboard.top(2)).containsExactly(f1.getId(), f2.getId());
+
+        if (likeStorage.addLike(f2.getId(), u.getId())) {
+            leaderboard.increment(f2.getId());
+        }
+        if (likeStorage.addLike(f2.getId(), u.getId())) {
+            leaderboard.increment(f2.getId());
+        }
+        assertThat(leaderboard.likesOf(f2.getId())).isEqualTo(1);
+        assertThat(leaderboard.top(2)).containsExactly(f2.getId(), f1.getId());
+        assertThat(leaderboard.checkConsistency()).isZero();
+
+        leaderboard.removeFilm(f1.getId());
+        assertThat(leaderboard.top(2)).containsExactly(f2.getId());
+    }
+
+    @Test
+    void checkConsistency_repairsDrift() {
+        User u = userStorage.create(new User(0, "u@", "u", "U", LocalDate.now()));
+        Film f = filmStorage.create(film("A"));
+        likeStorage.addLike(f.getId(), u.getId());
+        String etag = versions.popularEtag();
+
+        assertThat(leaderboard.checkConsistency()).isEqualTo(1);
+        assertThat(leaderboard.likesOf(f.getId())).isEqualTo(1);
+        assertThat(versions.popularEtag()).isNotEqualTo(etag);
+        etag = versions.popularEtag();
+        assertThat(leaderboard.checkConsistency()).isZero();
+        assertThat(versions.popularEtag()).isEqualTo(etag);
+    }
+
+    @Test
+    void top_filtersByGenreAndYear() {
+        User u = userStorage.create(new User(0, "u@", "u", "U", LocalDate.now()));
+        Film comedy2000 = filmStorage.create(film("A", 2000, 1));
+        Film drama2000 = filmStorage.create(film("B", 2000, 2));
+        Film comedy2010 = filmStorage.create(film("C", 2010, 1, 2));
+        likeStorage.addLike(comedy2010.getId(), u.getId());
+        leaderboard.load();
+
+        assertThat(leaderboard.top(10, 1, null)).containsExactly(comedy2010.getId(), comedy2000.getId());
+        assertThat(leaderboard.top(10, null, 2000)).containsExactly(comedy2000.getId(), drama2000.getId());
+        assertThat(leaderboard.top(10, 2, 2010)).containsExactly(comedy2010.getId());
+        assertThat(leaderboard.top(10, 3, null)).isEmpty();
+
+        drama2000.setReleaseDate(LocalDate.of(2010, 1, 1));
+        drama2000.setGenres(Set.of(genre(1)));
+        leaderboard.updateFilm(filmStorage.update(drama2000));
+        assertThat(leaderboard.top(10, 2, null)).containsExactly(comedy2010.getId());
+        assertThat(leaderboard.top(10, 1, 2010)).containsExactly(comedy2010.getId(), drama2000.getId());
+    }
+
+    private Film film(String name) {
+        return film(name, LocalDate.now().getYear());
+    }
+
+    private Film film(String name, int year, int... genreIds) {
+        Film f = new Film();
+        f.setName(name);
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.of(year, 1, 1));
+        f.setDuration(5);
+        f.setMpa(mpaStorage.findById(1).get());
+        Set<Genre> genres = new HashSet<>();
+        for (int genreId : genreIds) {
+            genres.add(genre(genreId));
+        }
+        f.setGenres(genres);
+        return f;
+    }
+
+    private Genre genre(int id) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        return genre;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.CatalogVersions;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmSearchIndex.class, FilmLeaderboard.class, CatalogVersions.class, DictionaryCache.class, FilmDbStorage.class, LikeDbStorage.class, GenreDbStorage.class, MpaDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmSearchIndexIntegrationTest {
+    private static final int ALL = FilmSearchIndex.TITLE | FilmSearchIndex.DESCRIPTION;
+
+    private final FilmSearchIndex searchIndex;
+    private final FilmLeaderboard leaderboard;
+    private final FilmDbStorage filmStorage;
+    private final MpaDbStorage mpaStorage;
+
+    @Test
+    void search_matchesCyrillicPrefixes_andRanksTitleFirst() {
+        Film title = filmStorage.create(film("Крадущийся тигр", "Боевик о мастерах"));
+        Film description = filmStorage.create(film("Затаившийся дракон", "Тигр крадётся ночью"));
+        Film other = filmStorage.create(film("Ёжик в тумане", "Мультфильм"));
+        searchIndex.load();
+        leaderboard.load();
+
+        assertThat(searchIndex.search("крад", ALL, 10)).containsExactly(title.getId(), description.getId());
+        assertThat(searchIndex.search("ТИГР крад", ALL, 10)).containsExactly(title.getId(), description.getId());
+        assertThat(searchIndex.search("тигр", FilmSearchIndex.DESCRIPTION, 10)).containsExactly(description.getId());
+        assertThat(searchIndex.search("ежик", FilmSearchIndex.TITLE, 10)).containsExactly(other.getId());
+        assertThat(searchIndex.search("тигр ежик", ALL, 10)).isEmpty();
+        assertThat(searchIndex.search("  ", ALL, 10)).isEmpty();
+    }
+
+    @Test
+    void search_shortTokensMatchWholeTerms() {
+        Film exact = filmStorage.create(film("Up", "Полёт"));
+        Film longer = filmStorage.create(film("Upside down", "Полёт"));
+        searchIndex.load();
+        leaderboard.load();
+
+        assertThat(searchIndex.search("up", ALL, 10)).containsExactly(exact.getId());
+        assertThat(searchIndex.search("ups", ALL, 10)).containsExactly(longer.getId());
+    }
+
+    @Test
+    void search_returnsTopHitsInRankOrder() {
+        Film description = filmStorage.create(film("Ночь", "Звездная ночь"));
+        Film title = filmStorage.create(film("Звездный путь", "Фантастика"));
+        Film sameScore = filmStorage.create(film("Звезда", "Фантастика"));
+        searchIndex.load();
+        leaderboard.load();
+
+        assertThat(searchIndex.search("звезд", ALL, 10))
+                .containsExactly(title.getId(), sameScore.getId(), description.getId());
+        assertThat(searchIndex.search("звезд", ALL, 2)).containsExactly(title.getId(), sameScore.getId());
+        assertThat(searchIndex.search("звезд", ALL, 0)).isEmpty();
+    }
+
+    @Test
+    void search_keepsBestHitsWhenCandidatesAreCapped() {
+        searchIndex.load();
+        long firstId = 1_000_000L;
+        for (long id = firstId; id <= firstId + FilmSearchIndex.MAX_CANDIDATES; id++) {
+            searchIndex.addFilm(indexed(id, "Фильм", "Комета"));
+        }
+        long titleHit = firstId + FilmSearchIndex.MAX_CANDIDATES + 1;
+        searchIndex.addFilm(indexed(titleHit, "Комета", "Фильм"));
+
+        assertThat(searchIndex.search("комета", ALL, 2)).containsExactly(titleHit, firstId);
+        searchIndex.load();
+    }
+
+    @Test
+    void incrementalUpdates_reindexFilms() {
+        Film film = filmStorage.create(film("Old title", "Plain"));
+        searchIndex.load();
+        assertThat(searchIndex.search("old", ALL, 10)).containsExactly(film.getId());
+
+        film.setName("New title");
+        searchIndex.addFilm(filmStorage.update(film));
+        assertThat(searchIndex.search("old", ALL, 10)).isEmpty();
+        assertThat(searchIndex.search("new", ALL, 10)).containsExactly(film.getId());
+
+        searchIndex.removeFilm(film.getId());
+        assertThat(searchIndex.search("title", ALL, 10)).isEmpty();
+    }
+
+    private static Film indexed(long id, String name, String description) {
+        Film f = new Film();
+        f.setId(id);
+        f.setName(name);
+        f.setDescription(description);
+        return f;
+    }
+
+    private Film film(String name, String description) {
+        Film f = new Film();
+        f.setName(name);
+        f.setDescription(description);
+        f.setReleaseDate(LocalDate.of(2000, 1, 1));
+        f.setDuration(5);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of());
+        return f;
+    }
+}
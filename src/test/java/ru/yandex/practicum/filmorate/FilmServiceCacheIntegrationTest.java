@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmServiceCacheIntegrationTest {
+
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+
+    @Test
+    void update_evictsCachedJson() throws IOException {
+        Film film = filmService.create(film("Before", 1));
+        JsonNode cached = json(film.getId());
+        assertThat(cached.get("name").asText()).isEqualTo("Before");
+        assertThat(genreIds(cached)).containsExactly(1);
+
+        Film changed = film("After", 2, 3);
+        changed.setId(film.getId());
+        filmService.update(changed);
+
+        JsonNode reloaded = json(film.getId());
+        assertThat(reloaded.get("name").asText()).isEqualTo("After");
+        assertThat(genreIds(reloaded)).containsExactly(2, 3);
+    }
+
+    @Test
+    void deleteFilm_evictsCachedJson() throws IOException {
+        Film film = filmService.create(film("Deleted", 1));
+        assertThat(json(film.getId()).get("id").asLong()).isEqualTo(film.getId());
+
+        filmService.deleteFilm(film.getId());
+
+        assertThatThrownBy(() -> filmService.getFilmJson(film.getId())).isInstanceOf(NotFoundException.class);
+    }
+
+    private JsonNode json(long filmId) throws IOException {
+        return objectMapper.readTree(filmService.getFilmJson(filmId));
+    }
+
+    private static int[] genreIds(JsonNode film) {
+        return StreamSupport.stream(film.get("genres").spliterator(), false)
+                .mapToInt(genre -> genre.get("id").asInt())
+                .sorted()
+                .toArray();
+    }
+
+    private static Film film(String name, int... genreIds) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("D");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        film.setMpa(new MpaRating(1, null));
+        film.setGenres(new LinkedHashSet<>(Arrays.stream(genreIds).mapToObj(id -> {
+            Genre genre = new Genre();
+            genre.setId(id);
+            return genre;
+        }).toList()));
+        return film;
+    }
+}
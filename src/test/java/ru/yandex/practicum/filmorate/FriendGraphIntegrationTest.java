@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FriendGraph.class, FriendshipDbStorage.class, UserDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FriendGraphIntegrationTest {
+
+    private final FriendGraph graph;
+    private final FriendshipDbStorage friendshipStorage;
+    private final UserDbStorage userStorage;
+
+    @Test
+    void load_matchesDatabaseQueries() {
+        User a = user("a");
+        User b = user("b");
+        User x = user("x");
+        User y = user("y");
+        friendshipStorage.sendFriendRequest(a.getId(), y.getId());
+        friendshipStorage.sendFriendRequest(a.getId(), x.getId());
+        friendshipStorage.sendFriendRequest(b.getId(), y.getId());
+
+        graph.load();
+
+        assertThat(ids(graph.friendsOf(a.getId())))
+                .containsExactlyElementsOf(friendshipStorage.getFriendUsers(a.getId()).stream().map(User::getId).toList());
+        assertThat(ids(graph.commonFriends(a.getId(), b.getId())))
+                .containsExactlyElementsOf(friendshipStorage.getCommonFriendUsers(a.getId(), b.getId()).stream().map(User::getId).toList());
+        assertThat(graph.friendsOf(y.getId())).isEmpty();
+    }
+
+    @Test
+    void incrementalUpdates_areIdempotent() {
+        User a = user("a");
+        User b = user("b");
+        User c = user("c");
+        graph.load();
+
+        assertThat(graph.addFriend(a.getId(), c.getId())).isTrue();
+        assertThat(graph.addFriend(a.getId(), b.getId())).isTrue();
+        assertThat(graph.addFriend(a.getId(), b.getId())).isFalse();
+        assertThat(ids(graph.friendsOf(a.getId()))).containsExactly(b.getId(), c.getId());
+        assertThat(graph.degreeOf(a.getId())).isEqualTo(2);
+
+        assertThat(graph.removeFriend(a.getId(), b.getId())).isTrue();
+        assertThat(graph.removeFriend(a.getId(), b.getId())).isFalse();
+
+        graph.addFriend(b.getId(), c.getId());
+        graph.removeUser(c.getId());
+        assertThat(graph.friendsOf(a.getId())).isEmpty();
+        assertThat(graph.friendsOf(b.getId())).isEmpty();
+        assertThat(graph.memoryUsage().edges()).isZero();
+    }
+
+    @Test
+    void addFriend_forUsersWithoutLists_andAfterRemoveUser() {
+        User a = user("a");
+        User b = user("b");
+        graph.load();
+
+        assertThat(graph.addFriend(a.getId(), b.getId())).isTrue();
+        assertThat(ids(graph.friendsOf(a.getId()))).containsExactly(b.getId());
+
+        graph.removeUser(a.getId());
+        graph.removeUser(b.getId());
+        assertThat(graph.addFriend(b.getId(), a.getId())).isTrue();
+        assertThat(ids(graph.friendsOf(b.getId()))).containsExactly(a.getId());
+        assertThat(graph.friendsOf(a.getId())).isEmpty();
+    }
+
+    @Test
+    void checkConsistency_rebuildsDriftedLists() {
+        User a = user("a");
+        User b = user("b");
+        User c = user("c");
+        friendshipStorage.sendFriendRequest(a.getId(), b.getId());
+        graph.load();
+        assertThat(graph.checkConsistency()).isZero();
+
+        friendshipStorage.sendFriendRequest(a.getId(), c.getId());
+        friendshipStorage.sendFriendRequest(c.getId(), b.getId());
+        graph.addFriend(b.getId(), a.getId());
+
+        assertThat(graph.checkConsistency()).isEqualTo(3);
+        assertThat(ids(graph.friendsOf(a.getId()))).containsExactly(b.getId(), c.getId());
+        assertThat(ids(graph.friendsOf(c.getId()))).containsExactly(b.getId());
+        assertThat(graph.friendsOf(b.getId())).isEmpty();
+
+        graph.removeUser(b.getId());
+        assertThat(ids(graph.friendsOf(a.getId()))).containsExactly(c.getId());
+        assertThat(graph.friendsOf(c.getId())).isEmpty();
+    }
+
+    @Test
+    void suggestions_rankByMutualFriendsAndMatchSql() {
+        User me = user("me");
+        User f1 = user("f1");
+        User f2 = user("f2");
+        User popular = user("popular");
+        User lonely = user("lonely");
+        friendshipStorage.sendFriendRequest(me.getId(), f1.getId());
+        friendshipStorage.sendFriendRequest(me.getId(), f2.getId());
+        friendshipStorage.sendFriendRequest(f1.getId(), lonely.getId());
+        friendshipStorage.sendFriendRequest(f1.getId(), popular.getId());
+        friendshipStorage.sendFriendRequest(f2.getId(), popular.getId());
+        friendshipStorage.sendFriendRequest(f2.getId(), f1.getId());
+        friendshipStorage.sendFriendRequest(f2.getId(), me.getId());
+
+        graph.load();
+
+        assertThat(ids(graph.suggestions(me.getId(), 10))).containsExactly(popular.getId(), lonely.getId());
+        assertThat(ids(graph.suggestions(me.getId(), 1))).containsExactly(popular.getId());
+        assertThat(ids(graph.suggestions(me.getId(), 10)))
+                .containsExactlyElementsOf(friendshipStorage.getSuggestedFriendUsers(me.getId(), 10).stream().map(User::getId).toList());
+    }
+
+    private List<Long> ids(int[] ids) {
+        return Arrays.stream(ids).asLongStream().boxed().toList();
+    }
+
+    private User user(String login) {
+        return userStorage.create(new User(0, login + "@mail", login, login.toUpperCase(), LocalDate.of(1990, 1, 1)));
+    }
+}
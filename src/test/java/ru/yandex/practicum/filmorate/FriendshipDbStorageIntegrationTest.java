@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FriendshipDbStorage.class, UserDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FriendshipDbStorageIntegrationTest {
+
+    private final FriendshipDbStorage friendshipStorage;
+    private final UserDbStorage userStorage;
+
+    @Test
+    void getFriendUsers_returnsHydratedFriendsInIdOrder() {
+        User a = user("a");
+        User b = user("b");
+        User c = user("c");
+        friendshipStorage.sendFriendRequest(a.getId(), c.getId());
+        friendshipStorage.sendFriendRequest(a.getId(), b.getId());
+        friendshipStorage.sendFriendRequest(b.getId(), a.getId());
+
+        assertThat(friendshipStorage.getFriendUsers(a.getId())).extracting(User::getLogin).containsExactly("b", "c");
+        assertThat(friendshipStorage.getFriendUsers(c.getId())).isEmpty();
+
+        friendshipStorage.removeFriend(a.getId(), b.getId());
+        assertThat(friendshipStorage.getFriendUsers(a.getId())).extracting(User::getLogin).containsExactly("c");
+    }
+
+    @Test
+    void getCommonFriendUsers_intersectsBothLists() {
+        User a = user("a");
+        User b = user("b");
+        User x = user("x");
+        User y = user("y");
+        friendshipStorage.sendFriendRequest(a.getId(), x.getId());
+        friendshipStorage.sendFriendRequest(a.getId(), y.getId());
+        friendshipStorage.sendFriendRequest(b.getId(), y.getId());
+
+        assertThat(friendshipStorage.getCommonFriendUsers(a.getId(), b.getId())).extracting(User::getId).containsExactly(y.getId());
+        assertThat(friendshipStorage.getCommonFriendUsers(b.getId(), x.getId())).isEmpty();
+    }
+
+    private User user(String login) {
+        return userStorage.create(new User(0, login + "@mail", login, login.toUpperCase(), LocalDate.of(1990, 1, 1)));
+    }
+}
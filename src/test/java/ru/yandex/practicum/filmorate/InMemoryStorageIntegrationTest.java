@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("inmemory")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class InMemoryStorageIntegrationTest {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+
+    @Test
+    void profile_wiresInMemoryStorages_andServicesWork() {
+        assertThat(filmStorage).isInstanceOf(InMemoryFilmStorage.class);
+        User a = userService.create(user("a"));
+        User b = userService.create(user("b"));
+        User c = userService.create(user("c"));
+        Film film = filmService.create(film("F"));
+
+        assertThat(film.getMpa().getName()).isEqualTo("G");
+        assertThat(film.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Драма");
+
+        userService.addFriend(a.getId(), c.getId());
+        userService.addFriend(b.getId(), c.getId());
+        assertThat(userService.getCommonFriends(a.getId(), b.getId())).extracting(User::getId).containsExactly(c.getId());
+
+        filmService.addLike(film.getId(), a.getId());
+        assertThat(filmService.getPopularFilms(1)).extracting(Film::getId).containsExactly(film.getId());
+
+        userService.delete(c.getId());
+        assertThat(userService.getFriends(a.getId())).isEmpty();
+    }
+
+    @Test
+    void concurrentCreates_getDistinctIds() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 1000).parallel().forEach(i -> ids.add(userStorage.create(user("u" + i)).getId()));
+
+        assertThat(ids).hasSize(1000);
+        List<User> page = userStorage.getUsersPage(0, 1000);
+        assertThat(page).extracting(User::getId).isSorted().hasSize(1000);
+    }
+
+    @Test
+    void existsById_andExistAll_probeTheMaps() {
+        User a = userStorage.create(user("exists-a"));
+        User b = userStorage.create(user("exists-b"));
+        Film film = filmStorage.create(film("Exists"));
+
+        assertThat(userStorage.existsById(a.getId())).isTrue();
+        assertThat(userStorage.existAll(List.of(a.getId(), b.getId(), a.getId()))).isTrue();
+        assertThat(userStorage.existAll(List.of(a.getId(), Long.MAX_VALUE))).isFalse();
+        assertThat(userStorage.existAll(List.of())).isTrue();
+        assertThat(filmStorage.existsById(film.getId())).isTrue();
+
+        filmStorage.delete(film.getId());
+        assertThat(filmStorage.existsById(film.getId())).isFalse();
+    }
+
+    private User user(String login) {
+        return new User(0, login + "@mail", login, login.toUpperCase(), LocalDate.of(1990, 1, 1));
+    }
+
+    private Film film(String name) {
+        Film f = new Film();
+        f.setName(name);
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.of(2000, 1, 1));
+        f.setDuration(5);
+        f.setMpa(new MpaRating(1, null));
+        Genre drama = new Genre();
+        drama.setId(2);
+        Genre comedy = new Genre();
+        comedy.setId(1);
+        f.setGenres(Set.of(drama, comedy));
+        return f;
+    }
+}
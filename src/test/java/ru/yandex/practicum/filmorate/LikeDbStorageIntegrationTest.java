@@ -6,23 +6,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
 import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeChange;
 import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
-@Import({LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, GenreDbStorage.class, MpaDbStorage.class})
+@Import({LikeDbStorage.class, DictionaryCache.class, FilmDbStorage.class, UserDbStorage.class, GenreDbStorage.class, MpaDbStorage.class})
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class LikeDbStorageIntegrationTest {
 
@@ -31,6 +41,7 @@ class LikeDbStorageIntegrationTest {
     private final UserDbStorage userStorage;
     private final GenreDbStorage genreStorage;
     private final MpaDbStorage mpaStorage;
+    private final JdbcTemplate jdbcTemplate;
 
     @Test
     void addRemoveAndCountLikes() {
@@ -44,13 +55,45 @@ class LikeDbStorageIntegrationTest {
         f.setGenres(Set.of());
         Film cf = filmStorage.create(f);
 
-        likeStorage.addLike(cf.getId(), u.getId());
+        assertThat(likeStorage.addLike(cf.getId(), u.getId())).isTrue();
+        assertThat(likeStorage.addLike(cf.getId(), u.getId())).isFalse();
         assertThat(likeStorage.getLikesCount(cf.getId())).isEqualTo(1);
 
-        likeStorage.removeLike(cf.getId(), u.getId());
+        assertThat(likeStorage.removeLike(cf.getId(), u.getId())).isTrue();
+        assertThat(likeStorage.removeLike(cf.getId(), u.getId())).isFalse();
         assertThat(likeStorage.getLikesCount(cf.getId())).isZero();
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addLike_concurrentDuplicates_countOnce() throws Exception {
+        User u = userStorage.create(new User(0, "c@c", "c", "C", LocalDate.now()));
+        Film f = new Film();
+        f.setName("C");
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(10);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of());
+        Film cf = filmStorage.create(f);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = pool.invokeAll(
+                    Collections.<Callable<Boolean>>nCopies(8, () -> likeStorage.addLike(cf.getId(), u.getId())));
+            long added = 0;
+            for (Future<Boolean> result : results) {
+                added += result.get() ? 1 : 0;
+            }
+            assertThat(added).isEqualTo(1);
+            assertThat(likeStorage.getLikesCount(cf.getId())).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+            jdbcTemplate.update("DELETE FROM likes WHERE film_id = ?", cf.getId());
+            jdbcTemplate.update("DELETE FROM films WHERE id = ?", cf.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", u.getId());
+        }
+    }
+
     @Test
     void getTopLikedFilms_ordersByLikes() {
         User u1 = userStorage.create(new User(0, "u1@", "u1", "U1", LocalDate.now()));
@@ -81,4 +124,51 @@ class LikeDbStorageIntegrationTest {
         List<Film> top = likeStorage.getTopLikedFilms(2);
         assertThat(top).extracting(Film::getId).containsExactly(c2.getId(), c1.getId());
     }
+
+    @Test
+    void recomputeLikeCounts_repairsDrift() {
+        User u = userStorage.create(new User(0, "r@r", "r", "R", LocalDate.now()));
+        Film f = new Film();
+        f.setName("R");
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(10);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of());
+        Film cf = filmStorage.create(f);
+        likeStorage.addLike(cf.getId(), u.getId());
+        jdbcTemplate.update("UPDATE films SET like_count = 7 WHERE id = ?", cf.getId());
+
+        assertThat(likeStorage.recomputeLikeCounts()).isEqualTo(1);
+        assertThat(likeStorage.getLikesCount(cf.getId())).isEqualTo(1);
+        assertThat(likeStorage.recomputeLikeCounts()).isZero();
+    }
+
+    @Test
+    void applyLikes_batchesAndAdjustsCounts() {
+        User a = userStorage.create(new User(0, "a@a", "a", "A", LocalDate.now()));
+        User b = userStorage.create(new User(0, "b@b", "b", "B", LocalDate.now()));
+        Film f = new Film();
+        f.setName("B");
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(10);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of());
+        Film cf = filmStorage.create(f);
+        likeStorage.addLike(cf.getId(), a.getId());
+
+        int changed = likeStorage.applyLikes(List.of(
+                new LikeChange(cf.getId(), a.getId(), true),
+                new LikeChange(cf.getId(), b.getId(), true)));
+        assertThat(changed).isEqualTo(1);
+        assertThat(likeStorage.getLikesCount(cf.getId())).isEqualTo(2);
+
+        changed = likeStorage.applyLikes(List.of(
+                new LikeChange(cf.getId(), b.getId(), false),
+                new LikeChange(cf.getId(), b.getId(), false)));
+        assertThat(changed).isEqualTo(1);
+        assertThat(likeStorage.getLikesCount(cf.getId())).isEqualTo(1);
+        assertThat(likeStorage.recomputeLikeCounts()).isZero();
+    }
 }
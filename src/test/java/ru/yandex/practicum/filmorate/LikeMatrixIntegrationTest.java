@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({LikeMatrix.class, DictionaryCache.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, GenreDbStorage.class, MpaDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class LikeMatrixIntegrationTest {
+
+    private final LikeMatrix likeMatrix;
+    private final LikeDbStorage likeStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final MpaDbStorage mpaStorage;
+
+    @Test
+    void recommend_ranksFilmsByNeighbourOverlap() {
+        User me = user("me");
+        User a = user("a");
+        User b = user("b");
+        User c = user("c");
+        Film f1 = filmStorage.create(film("F1"));
+        Film f2 = filmStorage.create(film("F2"));
+        Film f3 = filmStorage.create(film("F3"));
+        Film f4 = filmStorage.create(film("F4"));
+        Film f5 = filmStorage.create(film("F5"));
+        like(f1, me);
+        like(f2, me);
+        like(f1, a);
+        like(f2, a);
+        like(f3, a);
+        like(f2, b);
+        like(f4, b);
+        like(f5, c);
+
+        likeMatrix.load();
+
+        assertThat(likeMatrix.size()).isEqualTo(8);
+        assertThat(ids(likeMatrix.recommend(me.getId(), 10))).containsExactly(f3.getId(), f4.getId());
+        assertThat(ids(likeMatrix.recommend(me.getId(), 1))).containsExactly(f3.getId());
+        assertThat(likeMatrix.recommend(c.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void incrementalUpdates_changeRecommendations() {
+        User me = user("me");
+        User other = user("other");
+        Film shared = filmStorage.create(film("Shared"));
+        Film extra = filmStorage.create(film("Extra"));
+        likeMatrix.load();
+
+        likeMatrix.addLike(shared.getId(), me.getId());
+        likeMatrix.addLike(shared.getId(), other.getId());
+        likeMatrix.addLike(extra.getId(), other.getId());
+        assertThat(ids(likeMatrix.recommend(me.getId(), 10))).containsExactly(extra.getId());
+
+        likeMatrix.addLike(extra.getId(), me.getId());
+        assertThat(likeMatrix.recommend(me.getId(), 10)).isEmpty();
+
+        likeMatrix.removeLike(extra.getId(), me.getId());
+        likeMatrix.removeFilm(extra.getId());
+        assertThat(likeMatrix.recommend(me.getId(), 10)).isEmpty();
+        assertThat(likeMatrix.size()).isEqualTo(2);
+    }
+
+    private void like(Film film, User user) {
+        likeStorage.addLike(film.getId(), user.getId());
+    }
+
+    private List<Long> ids(int[] ids) {
+        return Arrays.stream(ids).asLongStream().boxed().toList();
+    }
+
+    private User user(String login) {
+        return userStorage.create(new User(0, login + "@mail", login, login.toUpperCase(), LocalDate.of(1990, 1, 1)));
+    }
+
+    private Film film(String name) {
+        Film f = new Film();
+        f.setName(name);
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(5);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of());
+        return f;
+    }
+}
@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingCounters;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1",
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.batch-size=100",
+        "filmorate.likes.write-behind.flush-interval-ms=3600000"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class LikeWriteBehindIntegrationTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final LikeWriteBehind likeWriteBehind;
+    private final LikeStorage likeStorage;
+    private final FilmLeaderboard leaderboard;
+    private final LikeMatrix likeMatrix;
+    private final TrendingCounters trending;
+    private final JdbcTemplate jdbc;
+    private final List<LikeWriteBehind> created = new ArrayList<>();
+
+    @AfterEach
+    void drain() {
+        created.forEach(LikeWriteBehind::drain);
+        likeWriteBehind.flush();
+    }
+
+    @Test
+    void flush_writesLastChangePerPair() {
+        Film film = film();
+        User a = user();
+        User b = user();
+        likeStorage.addLike(film.getId(), a.getId());
+        likeStorage.addLike(film.getId(), b.getId());
+        LikeWriteBehind writeBehind = writeBehind(100);
+
+        writeBehind.unlike(film.getId(), a.getId(), () -> true);
+        writeBehind.like(film.getId(), a.getId(), () -> true);
+        writeBehind.unlike(film.getId(), b.getId(), () -> true);
+        assertThat(writeBehind.like(film.getId(), b.getId(), () -> false)).isFalse();
+        assertThat(writeBehind.pendingCount()).isEqualTo(2);
+        assertThat(writeBehind.hasPendingChanges(film.getId())).isTrue();
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        assertThat(writeBehind.pendingCount()).isZero();
+        assertThat(likeStorage.getLikesCount(film.getId())).isEqualTo(1);
+        assertThat(likeStorage.recomputeLikeCounts()).isZero();
+    }
+
+    @Test
+    void enqueue_flushesInBackgroundWhenBatchIsFull() throws InterruptedException {
+        Film film = film();
+        LikeWriteBehind writeBehind = writeBehind(3);
+
+        writeBehind.like(film.getId(), user().getId(), () -> true);
+        writeBehind.like(film.getId(), user().getId(), () -> true);
+        assertThat(likeStorage.getLikesCount(film.getId())).isZero();
+        writeBehind.like(film.getId(), user().getId(), () -> true);
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (likeStorage.getLikesCount(film.getId()) < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(likeStorage.getLikesCount(film.getId())).isEqualTo(3);
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void drain_flushesPendingChanges() {
+        Film film = film();
+        LikeWriteBehind writeBehind = writeBehind(100);
+        writeBehind.like(film.getId(), user().getId(), () -> true);
+        writeBehind.like(film.getId(), user().getId(), () -> true);
+
+        writeBehind.drain();
+
+        assertThat(writeBehind.pendingCount()).isZero();
+        assertThat(likeStorage.getLikesCount(film.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void filmService_readsOwnWritesBeforeFlush() {
+        Film film = film();
+        Film other = film();
+        User user = user();
+        long matrixSize = likeMatrix.size();
+
+        filmService.addLike(film.getId(), user.getId());
+
+        assertThat(likeWriteBehind.hasPendingChanges(film.getId())).isTrue();
+        assertThat(likeStorage.getLikesCount(film.getId())).isZero();
+        assertThat(leaderboard.likesOf(film.getId())).isEqualTo(1);
+        assertThat(likeMatrix.size()).isEqualTo(matrixSize + 1);
+        assertThat(filmService.getPopularFilms(1000)).extracting(Film::getId)
+                .containsSubsequence(film.getId(), other.getId());
+        // the repair job leaves films with queued changes alone
+        leaderboard.checkConsistency(likeWriteBehind::hasPendingChanges);
+        assertThat(leaderboard.likesOf(film.getId())).isEqualTo(1);
+
+        likeWriteBehind.flush();
+        assertThat(likeStorage.getLikesCount(film.getId())).isEqualTo(1);
+
+        filmService.removeLike(film.getId(), user.getId());
+        assertThat(leaderboard.likesOf(film.getId())).isZero();
+        assertThat(likeMatrix.size()).isEqualTo(matrixSize);
+        likeWriteBehind.flush();
+        assertThat(likeStorage.getLikesCount(film.getId())).isZero();
+    }
+
+    @Test
+    void filmService_concurrentLikeAndUnlike_keepStorageAndMemoryInStep() throws Exception {
+        Film film = film();
+        User user = user();
+        long matrixSize = likeMatrix.size();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> results = pool.invokeAll(Collections.<Callable<Void>>nCopies(8, () -> {
+                for (int i = 0; i < 200; i++) {
+                    filmService.addLike(film.getId(), user.getId());
+                    filmService.removeLike(film.getId(), user.getId());
+                    filmService.addLike(film.getId(), user.getId());
+                }
+                return null;
+            }));
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        likeWriteBehind.flush();
+
+        int liked = likeStorage.getLikesCount(film.getId());
+        assertThat(leaderboard.likesOf(film.getId())).isEqualTo(liked);
+        assertThat(likeMatrix.size() - matrixSize).isEqualTo(liked);
+    }
+
+    @Test
+    void filmService_revertsMemoryWhenChangeIsDropped() {
+        Film film = film();
+        User user = user();
+        long matrixSize = likeMatrix.size();
+        filmService.addLike(film.getId(), user.getId());
+        assertThat(trending.top(TrendingCounters.Window.HOUR, false, 1000)).contains(film.getId());
+
+        // the film disappears behind the service's back, so the queued like hits the foreign key
+        jdbc.update("DELETE FROM films WHERE id = ?", film.getId());
+        likeWriteBehind.flush();
+
+        assertThat(leaderboard.likesOf(film.getId())).isZero();
+        assertThat(likeMatrix.size()).isEqualTo(matrixSize);
+        assertThat(trending.top(TrendingCounters.Window.HOUR, false, 1000)).doesNotContain(film.getId());
+    }
+
+    @Test
+    void deleteFilm_discardsQueuedLikes() {
+        Film film = film();
+        filmService.addLike(film.getId(), user().getId());
+
+        filmService.deleteFilm(film.getId());
+
+        assertThat(likeWriteBehind.hasPendingChanges(film.getId())).isFalse();
+        assertThat(likeWriteBehind.flush()).isZero();
+        assertThat(leaderboard.likesOf(film.getId())).isZero();
+    }
+
+    private LikeWriteBehind writeBehind(int batchSize) {
+        LikeWriteBehind writeBehind = new LikeWriteBehind(likeStorage, true, batchSize);
+        created.add(writeBehind);
+        return writeBehind;
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Film " + SEQUENCE.incrementAndGet());
+        film.setDescription("D");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        film.setMpa(new MpaRating(1, null));
+        return filmService.create(film);
+    }
+
+    private User user() {
+        int n = SEQUENCE.incrementAndGet();
+        return userService.create(new User(0, "wb" + n + "@mail.ru", "wb" + n, "User " + n, LocalDate.of(1990, 1, 1)));
+    }
+}
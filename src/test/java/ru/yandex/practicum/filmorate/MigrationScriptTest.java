@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationScriptTest {
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createLegacySchema() {
+        db = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE users (id INT PRIMARY KEY AUTO_INCREMENT, email VARCHAR NOT NULL, login VARCHAR NOT NULL, name VARCHAR NOT NULL, birthday DATE NOT NULL)");
+        jdbc.execute("CREATE TABLE friendships (user_id INTEGER NOT NULL, friend_id INTEGER NOT NULL, PRIMARY KEY (user_id, friend_id))");
+        jdbc.execute("CREATE TABLE mpa_rating (id INTEGER PRIMARY KEY, rating VARCHAR(50) NOT NULL)");
+        jdbc.execute("CREATE TABLE films (id INTEGER PRIMARY KEY, name VARCHAR(255) NOT NULL, description TEXT NOT NULL, release_date DATE NOT NULL, duration INTEGER NOT NULL, mpa INTEGER NOT NULL)");
+        jdbc.execute("CREATE TABLE genres (id INTEGER PRIMARY KEY, name VARCHAR(100) NOT NULL)");
+        jdbc.execute("CREATE TABLE film_genres (film_id INTEGER NOT NULL, genre_id INTEGER NOT NULL, PRIMARY KEY (film_id, genre_id))");
+        jdbc.execute("CREATE TABLE likes (film_id INTEGER NOT NULL, user_id INTEGER NOT NULL, PRIMARY KEY (film_id, user_id))");
+        jdbc.update("INSERT INTO films VALUES (1, 'A', 'D', DATE '2000-01-01', 90, 1), (2, 'B', 'D', DATE '2000-01-01', 90, 1)");
+        jdbc.update("INSERT INTO likes VALUES (1, 1), (1, 2), (2, 1)");
+    }
+
+    @AfterEach
+    void shutdown() {
+        db.shutdown();
+    }
+
+    @Test
+    void migrate_addsAndBackfillsColumns_andCanRunAgain() {
+        migrate();
+        migrate();
+
+        assertThat(jdbc.queryForList("SELECT like_count FROM films ORDER BY id", Integer.class)).containsExactly(2, 1);
+        Timestamp old = jdbc.queryForObject("SELECT MAX(created_at) FROM likes", Timestamp.class);
+        assertThat(old.toInstant()).isBefore(Instant.now().minus(365, ChronoUnit.DAYS));
+
+        jdbc.update("INSERT INTO likes (film_id, user_id) VALUES (2, 2)");
+        Timestamp fresh = jdbc.queryForObject("SELECT created_at FROM likes WHERE film_id = 2 AND user_id = 2", Timestamp.class);
+        assertThat(fresh.toInstant()).isAfter(Instant.now().minus(1, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void prodInit_keepsExistingDataAcrossRestarts() {
+        prodInit();
+        prodInit();
+
+        assertThat(jdbc.queryForList("SELECT like_count FROM films ORDER BY id", Integer.class)).containsExactly(2, 1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM likes", Integer.class)).isEqualTo(3);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM mpa_rating", Integer.class)).isEqualTo(5);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM genres", Integer.class)).isEqualTo(6);
+    }
+
+    private void migrate() {
+        new ResourceDatabasePopulator(new ClassPathResource("migrate.sql")).execute(db);
+    }
+
+    // скрипты профиля prod; test-classes подменяют schema.sql и data.sql, поэтому читаем их из main
+    private void prodInit() {
+        new ResourceDatabasePopulator(
+                new FileSystemResource("src/main/resources/schema.sql"),
+                new ClassPathResource("migrate.sql"),
+                new FileSystemResource("src/main/resources/data.sql")).execute(db);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs H2 EXPLAIN on the keyed queries of the *DbStorage classes and fails when one
+ * of them falls back to a table scan. The statements are the storages' own SQL
+ * constants, so a changed query is checked as it is. Full passes over a table
+ * (getFilms, getLikeCounts, recomputeLikeCounts) are scans by design and are not
+ * listed.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class QueryPlanIntegrationTest {
+    private static final Long[] IDS = {1L, 2L};
+
+    private final JdbcTemplate jdbc;
+
+    @Test
+    void filmQueries_useIndexes() {
+        assertIndexed(FilmDbStorage.FIND_BY_ID_SQL, 1);
+        assertIndexed(FilmDbStorage.FIND_PAGE_SQL, 0, 10);
+        assertIndexed(FilmDbStorage.FIND_BY_IDS_SQL, (Object) IDS);
+        assertIndexed(FilmDbStorage.EXISTS_BY_ID_SQL, 1);
+        assertIndexed(FilmDbStorage.UPDATE_SQL, "n", "d", "2000-01-01", 1, 1, 1);
+        assertIndexed(FilmDbStorage.DELETE_SQL, 1);
+        assertIndexed(FilmDbStorage.DELETE_LIKES_SQL, 1);
+        assertIndexed(FilmDbStorage.FIND_GENRE_IDS_SQL, 1);
+        assertIndexed(FilmDbStorage.FIND_GENRES_BY_FILM_IDS_SQL, (Object) IDS);
+        assertIndexed(FilmDbStorage.DELETE_GENRES_SQL, 1);
+        assertIndexed(FilmDbStorage.DELETE_GENRE_SQL, 1, 1);
+    }
+
+    @Test
+    void userQueries_useIndexes() {
+        assertIndexed(UserDbStorage.FIND_BY_ID_SQL, 1);
+        assertIndexed(UserDbStorage.FIND_PAGE_SQL, 0, 10);
+        assertIndexed(UserDbStorage.FIND_BY_IDS_SQL, (Object) IDS);
+        assertIndexed(UserDbStorage.EXISTS_BY_ID_SQL, 1);
+        assertIndexed(UserDbStorage.COUNT_BY_IDS_SQL, (Object) IDS);
+        assertIndexed(UserDbStorage.UPDATE_SQL, "e", "l", "n", "1990-01-01", 1);
+        assertIndexed(UserDbStorage.DELETE_SQL, 1);
+    }
+
+    @Test
+    void likeQueries_useIndexes() {
+        assertIndexed(LikeDbStorage.LOCK_FILM_SQL, 1);
+        assertIndexed(LikeDbStorage.DELETE_SQL, 1, 1);
+        assertIndexed(LikeDbStorage.DELETE_BY_FILM_SQL, 1);
+        assertIndexed(LikeDbStorage.INCREMENT_COUNT_SQL, 1);
+        assertIndexed(LikeDbStorage.DECREMENT_COUNT_SQL, 1);
+        assertIndexed(LikeDbStorage.ADJUST_COUNT_SQL, 1, 1);
+        assertIndexed(LikeDbStorage.RESET_COUNT_SQL, 1);
+        assertIndexed(LikeDbStorage.COUNT_SQL, 1);
+        assertIndexed(LikeDbStorage.TOP_SQL, 10);
+        assertIndexed(LikeDbStorage.TOP_GENRES_SQL, (Object) IDS);
+        assertIndexed(LikeDbStorage.FOR_EACH_SQL);
+        assertIndexed(LikeDbStorage.SINCE_SQL, "2024-01-01 00:00:00");
+    }
+
+    @Test
+    void friendshipQueries_useIndexes() {
+        assertIndexed(FriendshipDbStorage.DELETE_SQL, 1, 2);
+        assertIndexed(FriendshipDbStorage.FRIEND_IDS_SQL, 1);
+        assertIndexed(FriendshipDbStorage.FRIEND_USERS_SQL, 1);
+        assertIndexed(FriendshipDbStorage.COMMON_FRIEND_USERS_SQL, 2, 1);
+        assertIndexed(FriendshipDbStorage.SUGGESTED_FRIEND_USERS_SQL, 1, 1, 1, 10);
+        assertIndexed(FriendshipDbStorage.FOR_EACH_SQL);
+    }
+
+    @Test
+    void dictionaryQueries_useIndexes() {
+        assertIndexed(GenreDbStorage.FIND_BY_ID_SQL, 1);
+        assertIndexed(MpaDbStorage.FIND_BY_ID_SQL, 1);
+        assertIndexed(GenreDbStorage.FIND_BY_FILM_SQL, 1);
+    }
+
+    private void assertIndexed(String sql, Object... args) {
+        String plan = jdbc.queryForObject("EXPLAIN " + sql, String.class, args);
+        assertThat(plan).as("plan of %s", sql).doesNotContain("tableScan");
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.metrics.StorageMetricsAspect;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({StorageMetricsAspect.class, GenreDbStorage.class, StorageMetricsAspectIntegrationTest.Config.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class StorageMetricsAspectIntegrationTest {
+
+    private final GenreStorage genreStorage;
+    private final MeterRegistry registry;
+
+    @Test
+    void storageCalls_recordTimerAndRows() {
+        genreStorage.getAll();
+        genreStorage.getAll();
+        genreStorage.findById(999);
+
+        assertThat(registry.get("filmorate.storage.calls")
+                .tags("storage", "GenreDbStorage", "operation", "getAll", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get("filmorate.storage.rows")
+                .tags("storage", "GenreDbStorage", "operation", "getAll")
+                .summary().totalAmount()).isEqualTo(12);
+        assertThat(registry.get("filmorate.storage.rows")
+                .tags("storage", "GenreDbStorage", "operation", "findById")
+                .summary().totalAmount()).isZero();
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.index.TrendingCounters;
+import ru.yandex.practicum.filmorate.index.TrendingCounters.Window;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({DictionaryCache.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, GenreDbStorage.class, MpaDbStorage.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class TrendingCountersIntegrationTest {
+    private static final long USER = 1_000_000L;
+
+    private final LikeDbStorage likeStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final MpaDbStorage mpaStorage;
+
+    @Test
+    void load_seedsFromLikeTimes_andWindowsExpire() {
+        User u1 = user("u1");
+        User u2 = user("u2");
+        Film f1 = filmStorage.create(film("A"));
+        Film f2 = filmStorage.create(film("B"));
+        likeStorage.addLike(f1.getId(), u1.getId());
+        likeStorage.addLike(f1.getId(), u2.getId());
+        likeStorage.addLike(f2.getId(), u1.getId());
+
+        MutableClock clock = new MutableClock(Instant.now());
+        TrendingCounters trending = new TrendingCounters(likeStorage, clock);
+        trending.load();
+        assertThat(trending.top(Window.HOUR, false, 10)).containsExactly(f1.getId(), f2.getId());
+
+        clock.advance(Duration.ofHours(2));
+        trending.like(f2.getId(), u2.getId());
+        trending.like(f2.getId(), USER + 1);
+        assertThat(trending.top(Window.HOUR, false, 10)).containsExactly(f2.getId());
+        assertThat(trending.top(Window.DAY, false, 10)).containsExactly(f2.getId(), f1.getId());
+
+        trending.unlike(f2.getId(), u2.getId());
+        trending.unlike(f2.getId(), USER + 1);
+        trending.unlike(f2.getId(), USER + 1);
+        assertThat(trending.top(Window.DAY, false, 1)).containsExactly(f1.getId());
+
+        // a like loaded from storage is taken back from its own hour, not the current one
+        trending.unlike(f1.getId(), u1.getId());
+        trending.unlike(f1.getId(), u2.getId());
+        assertThat(trending.top(Window.DAY, false, 10)).containsExactly(f2.getId());
+
+        clock.advance(Duration.ofDays(8));
+        assertThat(trending.top(Window.WEEK, false, 10)).isEmpty();
+    }
+
+    @Test
+    void decayScoring_favoursRecentLikes() {
+        MutableClock clock = new MutableClock(Instant.now());
+        TrendingCounters trending = new TrendingCounters(likeStorage, clock);
+        trending.load();
+        long oldHit = Long.MAX_VALUE - 1;
+        long newHit = Long.MAX_VALUE - 2;
+        for (int i = 0; i < 3; i++) {
+            trending.like(oldHit, USER + i);
+        }
+        clock.advance(Duration.ofHours(48));
+        trending.like(newHit, USER);
+        trending.like(newHit, USER + 1);
+
+        assertThat(trending.top(Window.WEEK, false, 10)).containsExactly(oldHit, newHit);
+        assertThat(trending.top(Window.WEEK, true, 10)).containsExactly(newHit, oldHit);
+    }
+
+    private User user(String login) {
+        return userStorage.create(new User(0, login + "@mail", login, login.toUpperCase(), LocalDate.of(1990, 1, 1)));
+    }
+
+    private Film film(String name) {
+        Film f = new Film();
+        f.setName(name);
+        f.setDescription("D");
+        f.setReleaseDate(LocalDate.now());
+        f.setDuration(5);
+        f.setMpa(mpaStorage.findById(1).get());
+        f.setGenres(Set.of());
+        return f;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
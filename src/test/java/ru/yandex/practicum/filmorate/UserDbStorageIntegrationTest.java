@@ -6,10 +6,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 
+import javax.sql.DataSource;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 class UserDbStorageIntegrationTest {
 
     private final UserDbStorage userStorage;
+    private final DataSource dataSource;
 
     @Test
     void getUsers_returnsInitialUsers() {
@@ -35,6 +39,35 @@ class UserDbStorageIntegrationTest {
         assertThat(u).isPresent().hasValueSatisfying(user -> assertThat(user.getId()).isEqualTo(1));
     }
 
+    @Test
+    void getUsersPage_andStreamUsers_walkInIdOrder() {
+        User a = userStorage.create(new User(0, "a@p", "a", "A", LocalDate.of(1990, 1, 1)));
+        User b = userStorage.create(new User(0, "b@p", "b", "B", LocalDate.of(1990, 1, 1)));
+
+        assertThat(userStorage.getUsersPage(0, 1)).extracting(User::getId).containsExactly(1L);
+        assertThat(userStorage.getUsersPage(1, 10)).extracting(User::getId).containsExactly(a.getId(), b.getId());
+        assertThat(userStorage.getUsersPage(b.getId(), 10)).isEmpty();
+
+        List<User> streamed = new ArrayList<>();
+        userStorage.streamUsers(streamed::add);
+        assertThat(streamed).extracting(User::getId).containsExactly(1L, a.getId(), b.getId());
+
+        List<User> paged = new ArrayList<>();
+        new UserDbStorage(new JdbcTemplate(dataSource), 2).streamUsers(paged::add);
+        assertThat(paged).extracting(User::getId).containsExactly(1L, a.getId(), b.getId());
+    }
+
+    @Test
+    void existsById_andExistAll_probeWithoutLoading() {
+        User other = userStorage.create(new User(0, "e@p", "e", "E", LocalDate.of(1990, 1, 1)));
+
+        assertThat(userStorage.existsById(1)).isTrue();
+        assertThat(userStorage.existsById(other.getId() + 1)).isFalse();
+        assertThat(userStorage.existAll(List.of(1L, other.getId(), 1L))).isTrue();
+        assertThat(userStorage.existAll(List.of(1L, other.getId() + 1))).isFalse();
+        assertThat(userStorage.existAll(List.of())).isTrue();
+    }
+
     @Test
     void create_update_delete_cycle() {
         User user = new User(0, "a@b.c", "login", "Name", LocalDate.of(1990, 1, 1));
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedIntListsTest {
+
+    @Test
+    void add_firstValueOfNewKey() {
+        SortedIntLists lists = new SortedIntLists();
+
+        assertThat(lists.add(3, 7)).isTrue();
+        assertThat(lists.add(3, 7)).isFalse();
+        assertThat(lists.add(3, 2)).isTrue();
+        assertThat(lists.add(3, 5)).isTrue();
+
+        assertThat(lists.copy(3)).containsExactly(2, 5, 7);
+        assertThat(lists.size(0)).isZero();
+        assertThat(lists.total()).isEqualTo(3);
+    }
+
+    @Test
+    void add_afterRemoveKey() {
+        SortedIntLists lists = new SortedIntLists();
+        lists.add(1, 4);
+        lists.add(1, 9);
+
+        assertThat(lists.removeKey(1)).containsExactly(4, 9);
+        assertThat(lists.contains(1, 4)).isFalse();
+        assertThat(lists.add(1, 6)).isTrue();
+        assertThat(lists.add(1, 2)).isTrue();
+
+        assertThat(lists.copy(1)).containsExactly(2, 6);
+        assertThat(lists.total()).isEqualTo(2);
+    }
+
+    @Test
+    void remove_lastValue_thenAddAgain() {
+        SortedIntLists lists = new SortedIntLists();
+        lists.add(0, 1);
+
+        assertThat(lists.remove(0, 1)).isTrue();
+        assertThat(lists.remove(0, 1)).isFalse();
+        assertThat(lists.add(0, 1)).isTrue();
+        assertThat(lists.copy(0)).containsExactly(1);
+    }
+}
@@ -38,6 +38,7 @@ CREATE TABLE films
     release_date DATE         NOT NULL,
     duration     INTEGER      NOT NULL,
     mpa          INTEGER      NOT NULL,
+    like_count   INTEGER      NOT NULL DEFAULT 0,
     FOREIGN KEY (mpa) REFERENCES mpa_rating (id)
 );
 
@@ -60,7 +61,17 @@ CREATE TABLE likes
 (
     film_id INTEGER NOT NULL,
     user_id INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     PRIMARY KEY (film_id, user_id),
     FOREIGN KEY (film_id) REFERENCES films (id),
     FOREIGN KEY (user_id) REFERENCES users (id)
 );
+
+-- денормализованный счётчик лайков: топ по популярности читается по индексу
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, id);
+
+-- вторичные индексы: обратные выборки по второй колонке составных ключей
+CREATE INDEX IF NOT EXISTS idx_likes_user ON likes (user_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_friendships_friend ON friendships (friend_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre ON film_genres (genre_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes (created_at);